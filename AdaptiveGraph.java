@@ -0,0 +1,351 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Graph that picks its own layout from its edge density. While the graph is sparse each node keeps an array of its
+ * successor ids (like NodeEdgeGraph); once the density (edges / nodes^2) goes above a threshold the edges move into a
+ * bit matrix with one bit per pair of nodes (like EdgeArrayGraph, but 64 cells per long). If nodes are added until
+ * the density drops below a second, lower threshold, the edges move back into lists. The gap between the two
+ * thresholds keeps the graph from switching back and forth on every edge.
+ */
+public class AdaptiveGraph implements IGraph {
+    /**
+     * The two ways AdaptiveGraph can store its edges
+     */
+    public enum Layout { SPARSE, DENSE }
+
+    public static final double DEFAULT_DENSE_ABOVE = 1.0 / 16;
+    public static final double DEFAULT_SPARSE_BELOW = 1.0 / 64;
+    // below this many nodes the matrix is never worth building
+    private static final int MIN_DENSE_NODES = 64;
+
+    String name;
+    private final double denseAbove;
+    private final double sparseBelow;
+    private final ArrayList<String> labels;
+    private final HashMap<String, Integer> nodeIndexMap;
+    private long edgeCount;
+    private Layout layout;
+
+    // SPARSE layout: successors of node i are lists[i][0 .. degree[i] - 1]
+    private int[][] lists;
+    private int[] degree;
+
+    // DENSE layout: bit j of row i is set if there is an edge from i to j
+    private long[][] matrix;
+
+    /**
+     * Constructor for AdaptiveGraph with the default thresholds
+     * @param name name of the graph
+     */
+    public AdaptiveGraph(String name) {
+        this(name, DEFAULT_DENSE_ABOVE, DEFAULT_SPARSE_BELOW);
+    }
+
+    /**
+     * Constructor for AdaptiveGraph. The graph starts out in the SPARSE layout.
+     * @param name        name of the graph
+     * @param denseAbove  density above which the graph switches to the DENSE layout
+     * @param sparseBelow density below which the graph switches back to the SPARSE layout
+     * @throws IllegalArgumentException if sparseBelow is not smaller than denseAbove
+     */
+    public AdaptiveGraph(String name, double denseAbove, double sparseBelow) {
+        if (!(sparseBelow < denseAbove)) {
+            throw new IllegalArgumentException("sparseBelow must be smaller than denseAbove");
+        }
+        this.name = name;
+        this.denseAbove = denseAbove;
+        this.sparseBelow = sparseBelow;
+        this.labels = new ArrayList<>();
+        this.nodeIndexMap = new HashMap<>();
+        this.layout = Layout.SPARSE;
+        this.lists = new int[16][];
+        this.degree = new int[16];
+    }
+
+    /**
+     * Method to get the layout the edges are currently stored in
+     * @return SPARSE or DENSE
+     */
+    public Layout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Method to get the current edge density
+     * @return number of directed edges divided by the square of the number of nodes, or 0 for an empty graph
+     */
+    public double getDensity() {
+        long n = this.labels.size();
+        return n == 0 ? 0 : (double) this.edgeCount / (n * n);
+    }
+
+    /**
+     * Method to add a new node with the given description. An exception will
+     * be thrown if the description already names a node in the graph
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     * associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        if (this.nodeIndexMap.containsKey(descr)) {
+            throw new NodeNameExistsException(descr);
+        }
+        this.addNodeUnchecked(descr);
+    }
+
+    /**
+     * An internal method to add a node without checking whether it exists.
+     *
+     * @param descr the text description or label to associate with the node
+     * @return the index of the new node
+     */
+    private int addNodeUnchecked(String descr) {
+        int index = this.labels.size();
+        this.labels.add(descr);
+        this.nodeIndexMap.put(descr, index);
+        if (this.layout == Layout.SPARSE) {
+            if (index == this.lists.length) {
+                this.lists = Arrays.copyOf(this.lists, index * 2);
+                this.degree = Arrays.copyOf(this.degree, index * 2);
+            }
+        } else {
+            this.growMatrix(index + 1);
+        }
+        this.adaptLayout();
+        return index;
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions. If descr1 and descr2 are not already
+     * valid node labels in the graph, those nodes are also created.
+     * If the edge already exists, no changes are made
+     * (and no exceptions or warnings are raised)
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        Integer index1 = this.nodeIndexMap.get(descr1);
+        if (index1 == null) index1 = this.addNodeUnchecked(descr1);
+        Integer index2 = this.nodeIndexMap.get(descr2);
+        if (index2 == null) index2 = this.addNodeUnchecked(descr2);
+        if (this.hasEdge(index1, index2)) {
+            return;
+        }
+        if (this.layout == Layout.SPARSE) {
+            this.appendToList(index1, index2);
+        } else {
+            this.matrix[index1][index2 >>> 6] |= 1L << index2;
+        }
+        this.edgeCount++;
+        this.adaptLayout();
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions. This is equivalent to adding two directed edges, one from
+     * descr1 to descr2, and another from descr2 to descr1.
+     * If descr1 and descr2 are not already valid node labels in the graph,
+     * those nodes are also created.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.addDirectedEdge(descr1, descr2);
+        this.addDirectedEdge(descr2, descr1);
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        //This method has O(N) runtime in the DENSE layout and O(N + E) runtime in the SPARSE layout
+        int count = 0;
+        for (int i = 0; i < this.labels.size(); i++) {
+            if (this.hasEdge(i, i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        Integer index = this.nodeIndexMap.get(fromNodeLabel);
+        if (index == null) {
+            return false;
+        }
+        // edges are never duplicated, so counting the successors other than the node itself is enough
+        int others = this.outDegree(index) - (this.hasEdge(index, index) ? 1 : 0);
+        return others == this.labels.size() - 1;
+    }
+
+    /**
+     * Method to get all the immediate neighbors of a node. A neighbor is a node connected to the rootNode via a directed
+     * or undirected edge.
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root.
+     */
+    @Override
+    public HashSet<String> getNeighbors(String rootNode) {
+        HashSet<String> neighbors = new HashSet<>();
+        Integer index = this.nodeIndexMap.get(rootNode);
+        if (index == null) {
+            return neighbors;
+        }
+        if (this.layout == Layout.SPARSE) {
+            for (int k = 0; k < this.degree[index]; k++) {
+                neighbors.add(this.labels.get(this.lists[index][k]));
+            }
+        } else {
+            long[] row = this.matrix[index];
+            for (int w = 0; w < row.length; w++) {
+                long bits = row[w];
+                while (bits != 0) {
+                    neighbors.add(this.labels.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Method to return all the nodes in a graph
+     * @return LinkedList<String> that contains all the Nodes, in the order they were added
+     */
+    @Override
+    public LinkedList<String> getAllNodes() {
+        return new LinkedList<>(this.labels);
+    }
+
+    /**
+     * Helper method to check whether there is an edge between two node indices
+     */
+    private boolean hasEdge(int from, int to) {
+        if (this.layout == Layout.DENSE) {
+            return (this.matrix[from][to >>> 6] & (1L << to)) != 0;
+        }
+        int[] list = this.lists[from];
+        for (int k = 0; k < this.degree[from]; k++) {
+            if (list[k] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to count the successors of a node index
+     */
+    private int outDegree(int index) {
+        if (this.layout == Layout.SPARSE) {
+            return this.degree[index];
+        }
+        int count = 0;
+        for (long bits : this.matrix[index]) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to add a successor to a node's list in the SPARSE layout, growing the list if needed
+     */
+    private void appendToList(int from, int to) {
+        int[] list = this.lists[from];
+        if (list == null) {
+            list = new int[4];
+            this.lists[from] = list;
+        } else if (this.degree[from] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            this.lists[from] = list;
+        }
+        list[this.degree[from]++] = to;
+    }
+
+    /**
+     * Helper method to make sure the matrix has a row for each of numNodes nodes and enough columns for all of them.
+     * Columns are grown by doubling so adding nodes one at a time stays cheap overall.
+     */
+    private void growMatrix(int numNodes) {
+        int words = this.matrix.length == 0 ? 0 : this.matrix[0].length;
+        int neededWords = (numNodes + 63) >>> 6;
+        if (neededWords > words) {
+            int newWords = Math.max(neededWords, words * 2);
+            for (int i = 0; i < this.matrix.length; i++) {
+                if (this.matrix[i] != null) {
+                    this.matrix[i] = Arrays.copyOf(this.matrix[i], newWords);
+                }
+            }
+            words = newWords;
+        }
+        if (numNodes > this.matrix.length) {
+            this.matrix = Arrays.copyOf(this.matrix, Math.max(numNodes, this.matrix.length * 2));
+        }
+        for (int i = 0; i < numNodes; i++) {
+            if (this.matrix[i] == null) {
+                this.matrix[i] = new long[words];
+            }
+        }
+    }
+
+    /**
+     * Helper method to switch layouts when the density has crossed one of the thresholds
+     */
+    private void adaptLayout() {
+        double density = this.getDensity();
+        if (this.layout == Layout.SPARSE && density > this.denseAbove && this.labels.size() >= MIN_DENSE_NODES) {
+            this.matrix = new long[0][];
+            this.growMatrix(this.labels.size());
+            for (int i = 0; i < this.labels.size(); i++) {
+                for (int k = 0; k < this.degree[i]; k++) {
+                    int to = this.lists[i][k];
+                    this.matrix[i][to >>> 6] |= 1L << to;
+                }
+            }
+            this.lists = null;
+            this.degree = null;
+            this.layout = Layout.DENSE;
+        } else if (this.layout == Layout.DENSE && density < this.sparseBelow) {
+            int capacity = Math.max(16, this.labels.size());
+            this.lists = new int[capacity][];
+            this.degree = new int[capacity];
+            for (int i = 0; i < this.labels.size(); i++) {
+                long[] row = this.matrix[i];
+                for (int w = 0; w < row.length; w++) {
+                    long bits = row[w];
+                    while (bits != 0) {
+                        this.appendToList(i, (w << 6) + Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            this.matrix = null;
+            this.layout = Layout.SPARSE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.AdaptiveGraph;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import src.NodeNameExistsException;
+
+import java.util.Random;
+
+public class AdaptiveGraphTest {
+    @Test
+    public void testSwitchesLayoutsByDensity() {
+        AdaptiveGraph graph = new AdaptiveGraph("adaptive");
+        Assert.assertEquals(AdaptiveGraph.Layout.SPARSE, graph.getLayout());
+        // a complete graph on 100 nodes is as dense as it gets
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                graph.addDirectedEdge("node " + i, "node " + j);
+            }
+        }
+        Assert.assertEquals(AdaptiveGraph.Layout.DENSE, graph.getLayout());
+        Assert.assertTrue(graph.reachesAllOthers("node 5"));
+        Assert.assertEquals(100, graph.countSelfEdges());
+
+        // lots of lone nodes push the density back down
+        for (int i = 100; i < 1000; i++) {
+            graph.addDirectedEdge("node " + i, "node " + i);
+        }
+        Assert.assertEquals(AdaptiveGraph.Layout.SPARSE, graph.getLayout());
+        Assert.assertEquals(1000, graph.countSelfEdges());
+        Assert.assertFalse(graph.reachesAllOthers("node 5"));
+        Assert.assertEquals(100, graph.getNeighbors("node 5").size());
+    }
+
+    @Test
+    public void testMatchesNodeEdgeGraph() {
+        IGraph adaptive = new AdaptiveGraph("adaptive", 0.05, 0.01);
+        IGraph reference = new NodeEdgeGraph("reference");
+        Random random = new Random(28);
+        for (int i = 0; i < 4000; i++) {
+            String from = "node " + random.nextInt(120);
+            String to = "node " + random.nextInt(120);
+            adaptive.addDirectedEdge(from, to);
+            reference.addDirectedEdge(from, to);
+        }
+        Assert.assertEquals(reference.getAllNodes().size(), adaptive.getAllNodes().size());
+        Assert.assertEquals(reference.countSelfEdges(), adaptive.countSelfEdges());
+        for (String node : reference.getAllNodes()) {
+            Assert.assertEquals(reference.getNeighbors(node), adaptive.getNeighbors(node));
+        }
+    }
+
+    @Test
+    public void testAddExistingNode() throws NodeNameExistsException {
+        IGraph graph = new AdaptiveGraph("adaptive");
+        graph.addNode("node 1");
+        Assert.assertThrows(NodeNameExistsException.class, () -> graph.addNode("node 1"));
+    }
+}
@@ -0,0 +1,127 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sol.EdgeArrayGraph;
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.IndexedGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoScheduleException;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Measures the bytes allocated per call of the hot-path operations with ThreadMXBean.getThreadAllocatedBytes, on the
+ * same kind of graph at two sizes, and fails when the growth between them works out to more bytes per edge than the
+ * operation's budget. Zero-allocation paths have a budget of zero, so a change which quietly adds per-edge
+ * allocations breaks the build however small the graphs are; a fixed overhead per call does not move the slope.
+ * Each operation is warmed up first so the JIT has had a chance to remove allocations it can prove are local.
+ */
+public class AllocationTest {
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 1_000;
+    private static final int[] SIDES = {8, 16}; // each test graph is a SIDE x SIDE grid
+    // average bytes per call that may come from outside the operation (e.g. a stray allocation by the runtime)
+    private static final double NOISE_BYTES = 16;
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private NodeEdgeGraph[] nodeGraphs;
+    private EdgeArrayGraph[] arrayGraphs;
+    private int[] edgeCounts;
+    private String[] lastNodes;
+
+    // An operation whose allocation is measured, run on the test graph at the given index of SIDES
+    private interface Operation {
+        void run(int graph) throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        // a grid is connected and can be scheduled, so every operation runs all the way through
+        this.nodeGraphs = new NodeEdgeGraph[SIDES.length];
+        this.arrayGraphs = new EdgeArrayGraph[SIDES.length];
+        this.edgeCounts = new int[SIDES.length];
+        this.lastNodes = new String[SIDES.length];
+        for (int i = 0; i < SIDES.length; i++) {
+            this.nodeGraphs[i] = new NodeEdgeGraph("node graph");
+            new GraphGenerator(32).grid(SIDES[i], SIDES[i], GraphGenerator.into(this.nodeGraphs[i], true));
+            this.arrayGraphs[i] = new EdgeArrayGraph("array graph");
+            new GraphGenerator(32).grid(SIDES[i], SIDES[i], GraphGenerator.into(this.arrayGraphs[i], true));
+            this.edgeCounts[i] = IndexedGraph.of(this.nodeGraphs[i]).edgeCount();
+            this.lastNodes[i] = "node " + (SIDES[i] * SIDES[i] - 1);
+        }
+    }
+
+    // Returns the average number of bytes allocated by one call of operation on one test graph
+    private double bytesPerCall(Operation operation, int graph) throws Exception {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run(graph);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = this.threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            operation.run(graph);
+        }
+        return (this.threadBean.getThreadAllocatedBytes(threadId) - before) / (double) MEASURED_CALLS;
+    }
+
+    // Fails if operation allocates more than bytesPerEdge for each edge the larger test graph has over the smaller
+    private void assertSlope(String name, double bytesPerEdge, Operation operation) throws Exception {
+        double small = bytesPerCall(operation, 0);
+        double large = bytesPerCall(operation, SIDES.length - 1);
+        int edges = this.edgeCounts[SIDES.length - 1] - this.edgeCounts[0];
+        double slope = (large - small) / edges;
+        Assert.assertTrue(String.format("%s allocated %.0f bytes per call with %d edges and %.0f with %d, "
+                        + "%.2f bytes per edge, budget is %.2f", name, small, this.edgeCounts[0], large,
+                        this.edgeCounts[SIDES.length - 1], slope, bytesPerEdge),
+                large - small <= bytesPerEdge * edges + NOISE_BYTES);
+    }
+
+    @Test
+    public void testNodeEdgeGraphBudgets() throws Exception {
+        ArrayList<HashSet<String>>[] schedules = schedules(this.nodeGraphs);
+        assertSlope("getNeighbors", 0, i -> this.nodeGraphs[i].getNeighbors("node 9"));
+        assertSlope("hasRoute", 0, i -> GraphUtils.hasRoute(this.nodeGraphs[i], "node 0", this.lastNodes[i]));
+        // the route has 2 * SIDE - 1 nodes, so it grows with the square root of the edge count
+        assertSlope("getRoute", 1, i -> GraphUtils.getRoute(this.nodeGraphs[i], "node 0", this.lastNodes[i]));
+        assertSlope("countSelfEdges", 0, i -> this.nodeGraphs[i].countSelfEdges());
+        assertSlope("reachesAllOthers", 0, i -> this.nodeGraphs[i].reachesAllOthers("node 9"));
+        // the schedule holds every node, and a grid has about four edges per node
+        assertSlope("findSchedule", 16, i -> Scheduler.findSchedule(this.nodeGraphs[i]));
+        // getNeighbors builds a set of each lab's neighbors, once from either teacher's side
+        assertSlope("checkValidity", 96, i -> Scheduler.checkValidity(this.nodeGraphs[i], schedules[i]));
+    }
+
+    @Test
+    public void testEdgeArrayGraphBudgets() throws Exception {
+        ArrayList<HashSet<String>>[] schedules = schedules(this.arrayGraphs);
+        // GraphUtils.hasRoute only accepts a NodeEdgeGraph, so it is only measured above
+        assertSlope("getNeighbors", 0, i -> this.arrayGraphs[i].getNeighbors("node 9"));
+        assertSlope("getRoute", 1, i -> GraphUtils.getRoute(this.arrayGraphs[i], "node 0", this.lastNodes[i]));
+        assertSlope("countSelfEdges", 0, i -> this.arrayGraphs[i].countSelfEdges());
+        assertSlope("reachesAllOthers", 0, i -> this.arrayGraphs[i].reachesAllOthers("node 9"));
+        // scheduled on an IndexedGraph snapshot, which reads every node's neighbors through getNeighbors
+        assertSlope("findSchedule", 160, i -> Scheduler.findSchedule(this.arrayGraphs[i]));
+        // getNeighbors builds a set of each lab's neighbors, once from either teacher's side
+        assertSlope("checkValidity", 96, i -> Scheduler.checkValidity(this.arrayGraphs[i], schedules[i]));
+    }
+
+    // Returns a schedule for each of graphs, for checkValidity to check
+    @SuppressWarnings("unchecked")
+    private ArrayList<HashSet<String>>[] schedules(IGraph[] graphs) throws NoScheduleException {
+        ArrayList<HashSet<String>>[] schedules = new ArrayList[graphs.length];
+        for (int i = 0; i < graphs.length; i++) {
+            schedules[i] = Scheduler.findSchedule(graphs[i]);
+        }
+        return schedules;
+    }
+}
@@ -0,0 +1,483 @@
+package sol;
+
+import src.NoRouteException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers a stream of queries against one graph, for offline runs with millions of queries. Each query is one line
+ * of tab-separated fields:
+ * hasRoute FROM TO    answered with true or false
+ * getRoute FROM TO    answered with the labels of a shortest route separated by tabs, or "no route"
+ * schedule LAB        answered with the teacher (0 or 1) of the lab, or "no schedule" if the graph has none
+ * Every non-empty line gets exactly one answer line, in the same order as the queries, so the answers can be pasted
+ * next to the query file. Malformed lines are answered with a line starting with "error:".
+ *
+ * The reader thread cuts the query stream into chunks that are answered in parallel, each on its worker thread's
+ * TraversalWorkspace. Finished chunks are written in order while later ones are still running, and at most a few
+ * chunks per thread are in flight, so memory stays flat however long the query file is: latencies go into a
+ * fixed-size histogram rather than a list, and route answers are kept in a least-recently-used cache with a fixed
+ * budget of bytes, since nightly query files repeat many of their queries. The cache is split into stripes with a
+ * lock each, so the worker threads rarely wait for one another on it.
+ */
+public class BatchQueryRunner {
+    // queries per chunk: enough to make handing a chunk to a thread cheap next to answering it
+    private static final int CHUNK_SIZE = 1024;
+    // chunks in flight per thread, so a slow chunk does not leave the other threads idle
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final IndexedGraph graph;
+    private final int numThreads;
+    private final RouteCache cache; // null if the cache is off
+    private IncrementalScheduler scheduler; // built by the first schedule query
+    private final LongAdder cacheLookups = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder labelLookups = new LongAdder();
+    private final LongAdder labelHits = new LongAdder();
+    private LatencyHistogram latencies; // latencies of the queries written so far in the current run
+
+    /**
+     * Summary of one run: how many queries were answered, how fast, how often the cache could answer them and how
+     * often their labels were found in the graph
+     */
+    public static class Report {
+        private final long queries;
+        private final long elapsedNanos;
+        private final LatencyHistogram latencies;
+        private final long cacheLookups;
+        private final long cacheHits;
+        private final long labelLookups;
+        private final long labelHits;
+
+        Report(long queries, long elapsedNanos, LatencyHistogram latencies, long cacheLookups, long cacheHits,
+               long labelLookups, long labelHits) {
+            this.queries = queries;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.cacheLookups = cacheLookups;
+            this.cacheHits = cacheHits;
+            this.labelLookups = labelLookups;
+            this.labelHits = labelHits;
+        }
+
+        /**
+         * Method to get the number of queries answered
+         * @return number of queries
+         */
+        public long getQueries() {
+            return this.queries;
+        }
+
+        /**
+         * Method to get the number of queries answered per second of wall-clock time
+         * @return throughput in queries per second
+         */
+        public double getThroughput() {
+            return this.queries * 1e9 / Math.max(1, this.elapsedNanos);
+        }
+
+        /**
+         * Method to get a latency percentile over all queries. Latencies are counted in log-scale buckets, so the
+         * result is the top of the bucket the percentile falls in: at most 1/16 above the exact value, never below it,
+         * and never above the largest latency.
+         * @param percent percentile between 0 and 100
+         * @return latency in nanoseconds that the given percentage of queries did not exceed
+         */
+        public long getLatencyPercentile(double percent) {
+            return this.latencies.percentile(percent);
+        }
+
+        /**
+         * Method to get the share of route queries answered from the cache
+         * @return hit rate between 0 and 1
+         */
+        public double getCacheHitRate() {
+            return this.cacheLookups == 0 ? 0 : (double) this.cacheHits / this.cacheLookups;
+        }
+
+        /**
+         * Method to get the share of label lookups that found the label in the graph
+         * @return hit rate between 0 and 1
+         */
+        public double getLabelLookupHitRate() {
+            return this.labelLookups == 0 ? 0 : (double) this.labelHits / this.labelLookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queries: %d in %.3f s (%.0f queries/s)%n"
+                            + "latency: p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n"
+                            + "cache hit rate: %.1f%% of %d route queries%n"
+                            + "label lookup hit rate: %.1f%% of %d label lookups",
+                    this.queries, this.elapsedNanos / 1e9, this.getThroughput(),
+                    this.getLatencyPercentile(50) / 1e3, this.getLatencyPercentile(90) / 1e3,
+                    this.getLatencyPercentile(99) / 1e3, this.getLatencyPercentile(100) / 1e3,
+                    100 * this.getCacheHitRate(), this.cacheLookups,
+                    100 * this.getLabelLookupHitRate(), this.labelLookups);
+        }
+    }
+
+    /**
+     * Counts of latencies in log-scale buckets: values below 16 have a bucket each, and every power of two above
+     * that is split into 16 equal buckets. That is under a thousand buckets for any long, whatever the number of
+     * queries, and each bucket is at most 1/16 of its lowest value wide.
+     */
+    static class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final long[] counts = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+        private long total;
+        private long max;
+
+        /**
+         * Method to count one latency
+         * @param nanos latency in nanoseconds; negative values count as 0
+         */
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            this.counts[bucketOf(value)]++;
+            this.total++;
+            this.max = Math.max(this.max, value);
+        }
+
+        /**
+         * Method to get the top of the bucket a percentile falls in, capped at the largest latency counted
+         * @param percent percentile between 0 and 100
+         * @return latency in nanoseconds, or 0 if nothing was counted
+         */
+        long percentile(double percent) {
+            if (this.total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, Math.min(this.total, (long) Math.ceil(percent / 100 * this.total)));
+            long seen = 0;
+            int bucket = 0;
+            while (seen + this.counts[bucket] < rank) {
+                seen += this.counts[bucket++];
+            }
+            return Math.min(highestIn(bucket), this.max);
+        }
+
+        /**
+         * Helper method to find the bucket of a non-negative value
+         */
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value); // at least SUB_BITS here
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * Helper method to find the largest value that falls in a bucket
+         */
+        private static long highestIn(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1; // exponent - SUB_BITS
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * Least-recently-used cache of answers by query line, bounded by an estimate of the bytes its entries take.
+     * Lines are spread over STRIPES access-ordered maps by hash, each with its own lock and an equal share of the
+     * budget, so threads only contend when they hit the same stripe and a stripe evicts its own eldest entries.
+     */
+    static class RouteCache {
+        private static final int STRIPES = 16;
+        // a map entry and two Strings with their arrays, on top of the characters
+        private static final int ENTRY_OVERHEAD = 128;
+
+        private final long stripeBytes;
+        private final LinkedHashMap<String, String>[] stripes; // access-ordered, eldest is least recently used
+        private final long[] bytes; // estimated bytes held by each stripe, guarded by the stripe
+
+        /**
+         * Constructor for RouteCache
+         * @param capacityBytes estimated bytes the entries may take in total
+         */
+        @SuppressWarnings("unchecked")
+        RouteCache(long capacityBytes) {
+            this.stripeBytes = capacityBytes / STRIPES;
+            this.stripes = new LinkedHashMap[STRIPES];
+            this.bytes = new long[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                this.stripes[i] = new LinkedHashMap<>(16, 0.75f, true);
+            }
+        }
+
+        /**
+         * Method to look an answer up, making it the most recently used entry of its stripe
+         * @param line query line
+         * @return the cached answer, or null if there is none
+         */
+        String get(String line) {
+            LinkedHashMap<String, String> stripe = this.stripes[stripeOf(line)];
+            // a lookup reorders the entries, so even reads have to hold the stripe's lock
+            synchronized (stripe) {
+                return stripe.get(line);
+            }
+        }
+
+        /**
+         * Method to cache an answer, evicting the least recently used entries of its stripe until the stripe is
+         * back within its share of the budget. An entry larger than that share is not cached.
+         * @param line   query line
+         * @param answer answer to the query
+         */
+        void put(String line, String answer) {
+            long size = sizeOf(line, answer);
+            if (size > this.stripeBytes) {
+                return;
+            }
+            int index = stripeOf(line);
+            LinkedHashMap<String, String> stripe = this.stripes[index];
+            synchronized (stripe) {
+                String old = stripe.put(line, answer);
+                this.bytes[index] += size - (old == null ? 0 : sizeOf(line, old));
+                Iterator<Map.Entry<String, String>> eldest = stripe.entrySet().iterator();
+                while (this.bytes[index] > this.stripeBytes) {
+                    Map.Entry<String, String> entry = eldest.next();
+                    this.bytes[index] -= sizeOf(entry.getKey(), entry.getValue());
+                    eldest.remove();
+                }
+            }
+        }
+
+        /**
+         * Method to get the estimated bytes held by every stripe together
+         * @return estimated size of the cached entries in bytes
+         */
+        long sizeInBytes() {
+            long total = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                synchronized (this.stripes[i]) {
+                    total += this.bytes[i];
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Helper method to estimate the bytes an entry takes, counting two bytes per character
+         */
+        private static long sizeOf(String line, String answer) {
+            return ENTRY_OVERHEAD + 2L * (line.length() + answer.length());
+        }
+
+        /**
+         * Helper method to pick the stripe of a line from its spread hash
+         */
+        private static int stripeOf(String line) {
+            int hash = line.hashCode() * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+        }
+    }
+
+    /**
+     * Answers and latencies of one chunk of queries
+     */
+    private static class Chunk {
+        final String[] answers;
+        final long[] latencies;
+
+        Chunk(int size) {
+            this.answers = new String[size];
+            this.latencies = new long[size];
+        }
+    }
+
+    /**
+     * Constructor for BatchQueryRunner.
+     * @param graph         graph to answer queries on
+     * @param numThreads    number of worker threads
+     * @param cacheBytes    estimated bytes of route answers to keep, dropping the least recently used; 0 turns the
+     *                      cache off
+     */
+    public BatchQueryRunner(IndexedGraph graph, int numThreads, long cacheBytes) {
+        this.graph = graph;
+        this.numThreads = Math.max(1, numThreads);
+        this.cache = cacheBytes > 0 ? new RouteCache(cacheBytes) : null;
+    }
+
+    /**
+     * Method to get the estimated bytes held by the route cache, which never exceeds the budget it was given
+     * @return estimated size of the cached answers in bytes, 0 if the cache is off
+     */
+    public long getCacheBytes() {
+        return this.cache == null ? 0 : this.cache.sizeInBytes();
+    }
+
+    /**
+     * Method to answer every query from a reader and write the answers, one line per query, in query order
+     * @param queries query lines
+     * @param out     where to write the answers; it is flushed but not closed
+     * @return Report on the run
+     * @throws IOException if reading the queries or writing the answers fails
+     */
+    public Report run(BufferedReader queries, Writer out) throws IOException {
+        long start = System.nanoTime();
+        this.cacheLookups.reset();
+        this.cacheHits.reset();
+        this.labelLookups.reset();
+        this.labelHits.reset();
+        this.latencies = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        try {
+            String[] lines = new String[CHUNK_SIZE];
+            int size = 0;
+            String line;
+            while ((line = queries.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                lines[size++] = line;
+                if (size == CHUNK_SIZE) {
+                    if (inFlight.size() == CHUNKS_PER_THREAD * this.numThreads) {
+                        this.writeChunk(inFlight.poll(), out);
+                    }
+                    inFlight.add(this.submit(pool, lines, size));
+                    lines = new String[CHUNK_SIZE];
+                    size = 0;
+                }
+            }
+            if (size > 0) {
+                inFlight.add(this.submit(pool, lines, size));
+            }
+            while (!inFlight.isEmpty()) {
+                this.writeChunk(inFlight.poll(), out);
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Report(this.latencies.total, System.nanoTime() - start, this.latencies, this.cacheLookups.sum(),
+                this.cacheHits.sum(), this.labelLookups.sum(), this.labelHits.sum());
+    }
+
+    /**
+     * Helper method to hand a chunk of query lines to the pool
+     */
+    private Future<Chunk> submit(ExecutorService pool, String[] lines, int size) {
+        return pool.submit(() -> {
+            Chunk chunk = new Chunk(size);
+            TraversalWorkspace workspace = TraversalWorkspace.get();
+            for (int i = 0; i < size; i++) {
+                long begin = System.nanoTime();
+                chunk.answers[i] = this.answer(lines[i], workspace);
+                chunk.latencies[i] = System.nanoTime() - begin;
+            }
+            return chunk;
+        });
+    }
+
+    /**
+     * Helper method to wait for a chunk, write its answers and count its latencies
+     */
+    private void writeChunk(Future<Chunk> future, Writer out) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        for (String answer : chunk.answers) {
+            out.write(answer);
+            out.write('\n');
+        }
+        for (long latency : chunk.latencies) {
+            this.latencies.record(latency);
+        }
+    }
+
+    /**
+     * Helper method to answer one query line
+     */
+    private String answer(String line, TraversalWorkspace workspace) {
+        String[] fields = line.split("\t");
+        String op = fields[0];
+        if (op.equals("schedule") && fields.length == 2) {
+            return this.teacherOf(fields[1]);
+        }
+        if (!(op.equals("hasRoute") || op.equals("getRoute")) || fields.length != 3) {
+            return "error: expected hasRoute or getRoute with two labels, or schedule with one: " + line;
+        }
+        if (this.cache != null) {
+            this.cacheLookups.increment();
+            String cached = this.cache.get(line);
+            if (cached != null) {
+                this.cacheHits.increment();
+                return cached;
+            }
+        }
+        this.countLookup(fields[1]);
+        this.countLookup(fields[2]);
+        String result;
+        if (op.equals("hasRoute")) {
+            result = String.valueOf(GraphUtils.hasRoute(this.graph, fields[1], fields[2], workspace));
+        } else {
+            try {
+                LinkedList<String> route = GraphUtils.getRoute(this.graph, fields[1], fields[2], workspace);
+                result = String.join("\t", route);
+            } catch (NoRouteException e) {
+                result = "no route";
+            }
+        }
+        if (this.cache != null) {
+            this.cache.put(line, result);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method to answer a schedule query, scheduling the whole graph the first time one is asked
+     */
+    private String teacherOf(String lab) {
+        IncrementalScheduler schedule;
+        synchronized (this) {
+            if (this.scheduler == null) {
+                this.scheduler = new IncrementalScheduler(this.graph);
+            }
+            schedule = this.scheduler;
+        }
+        if (!this.countLookup(lab)) {
+            return "error: unknown lab " + lab;
+        }
+        return schedule.isSchedulable() ? String.valueOf(schedule.getTeacher(lab)) : "no schedule";
+    }
+
+    /**
+     * Helper method to look a label up in the graph and count whether it was found
+     * @return true if the label is in the graph
+     */
+    private boolean countLookup(String label) {
+        this.labelLookups.increment();
+        if (this.graph.indexOf(label) >= 0) {
+            this.labelHits.increment();
+            return true;
+        }
+        return false;
+    }
+}
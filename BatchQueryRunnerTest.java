@@ -0,0 +1,92 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.BatchQueryRunner;
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.IndexedGraph;
+import sol.NodeEdgeGraph;
+import src.NoRouteException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class BatchQueryRunnerTest {
+    @Test
+    public void testAnswersInOrder() throws IOException, NoRouteException {
+        NodeEdgeGraph chain = new NodeEdgeGraph("chain");
+        new GraphGenerator(39).chain(5, GraphGenerator.into(chain, true));
+        BatchQueryRunner runner = new BatchQueryRunner(IndexedGraph.of(chain), 2, 1 << 20);
+        String queries = "hasRoute\tnode 0\tnode 4\n"
+                + "\n"
+                + "getRoute\tnode 1\tnode 3\n"
+                + "hasRoute\tnode 0\tmissing\n"
+                + "schedule\tnode 2\n"
+                + "hasRoute\tnode 0\tnode 4\n"
+                + "jump\tnode 0\n";
+        StringWriter out = new StringWriter();
+        BatchQueryRunner.Report report = runner.run(new BufferedReader(new StringReader(queries)), out);
+        String[] answers = out.toString().split("\n");
+        Assert.assertEquals(6, answers.length);
+        Assert.assertEquals("true", answers[0]);
+        Assert.assertEquals("node 1\tnode 2\tnode 3", answers[1]);
+        Assert.assertEquals("false", answers[2]);
+        Assert.assertEquals("0", answers[3]);
+        Assert.assertEquals("true", answers[4]);
+        Assert.assertTrue(answers[5].startsWith("error:"));
+
+        Assert.assertEquals(6, report.getQueries());
+        Assert.assertEquals(0.25, report.getCacheHitRate(), 1e-9); // one repeat in four route queries
+        Assert.assertTrue(report.getLabelLookupHitRate() < 1);
+        Assert.assertTrue(report.getLatencyPercentile(50) <= report.getLatencyPercentile(99));
+    }
+
+    @Test
+    public void testCacheStaysWithinByteBudget() throws IOException {
+        NodeEdgeGraph chain = new NodeEdgeGraph("chain");
+        new GraphGenerator(39).chain(200, GraphGenerator.into(chain, true));
+        BatchQueryRunner runner = new BatchQueryRunner(IndexedGraph.of(chain), 2, 64 * 1024);
+        // routes of up to 200 labels, far more than the budget holds; each is asked twice in a row, so the second
+        // one is answered from the cache and the oldest answers are evicted
+        StringBuilder queries = new StringBuilder();
+        for (int i = 1; i < 200; i++) {
+            String query = "getRoute\tnode 0\tnode " + i + "\n";
+            queries.append(query).append(query);
+        }
+        StringWriter out = new StringWriter();
+        BatchQueryRunner.Report report = runner.run(new BufferedReader(new StringReader(queries.toString())), out);
+        Assert.assertEquals(398, out.toString().split("\n").length);
+        Assert.assertTrue(report.getCacheHitRate() > 0.4);
+        Assert.assertTrue(runner.getCacheBytes() > 0);
+        Assert.assertTrue(runner.getCacheBytes() <= 64 * 1024);
+        Assert.assertEquals(0, new BatchQueryRunner(IndexedGraph.of(chain), 1, 0).getCacheBytes());
+    }
+
+    @Test
+    public void testManyChunksMatchGraphUtils() throws IOException {
+        NodeEdgeGraph local = new NodeEdgeGraph("random");
+        new GraphGenerator(39).erdosRenyi(300, 450, GraphGenerator.into(local, false));
+        IndexedGraph graph = IndexedGraph.of(local);
+        Random random = new Random(39);
+        StringBuilder queries = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            String from = graph.label(random.nextInt(graph.size()));
+            String to = graph.label(random.nextInt(graph.size()));
+            queries.append("hasRoute\t").append(from).append('\t').append(to).append('\n');
+            expected.append(GraphUtils.hasRoute(local, from, to)).append('\n');
+        }
+        StringWriter out = new StringWriter();
+        BatchQueryRunner.Report report = new BatchQueryRunner(graph, 4, 0)
+                .run(new BufferedReader(new StringReader(queries.toString())), out);
+        Assert.assertEquals(expected.toString(), out.toString());
+        Assert.assertEquals(5000, report.getQueries());
+        Assert.assertEquals(1.0, report.getLabelLookupHitRate(), 1e-9);
+        Assert.assertTrue(report.getThroughput() > 0);
+    }
+}
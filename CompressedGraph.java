@@ -0,0 +1,427 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Read-only graph that stores each node's sorted successor list as gaps between neighbor ids, written with a
+ * variable-length byte code, in the style of WebGraph. Nodes are renumbered in breadth-first order before encoding
+ * so that neighbors tend to have nearby ids and the gaps stay small. Every record is laid out as:
+ * outdegree, then the first successor as a signed offset from the node's own id, then each following successor as
+ * (gap - 1) from the previous one. All numbers use 7 bits per byte with the high bit marking "more bytes follow".
+ * Only every BLOCK_SIZE-th record start is kept; the records in between are found by skipping forward. Labels are
+ * kept packed in a LabelDictionary whose ids are the renumbered node ids, so they do not cost a String and a map
+ * entry per node on top of the compressed edges.
+ */
+public class CompressedGraph implements IGraph {
+    private static final int BLOCK_SHIFT = 3;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    String name;
+    private final LabelDictionary labels; // label id i is node i
+    private final int[] blockStart; // byte offset of the record of every BLOCK_SIZE-th node
+    private final byte[] data;
+    private final int edgeCount;
+
+    /**
+     * Cursor that decodes one node's successor list a number at a time. A cursor can be reset onto another node,
+     * so a whole traversal can run with a single cursor and no per-edge allocation.
+     */
+    public final class NeighborCursor {
+        private int position;
+        private int remaining;
+        private int previous;
+        private boolean first;
+        private int node;
+
+        /**
+         * Method to move the cursor to the start of a node's successor list
+         * @param index id of the node whose successors to decode
+         * @return this cursor
+         */
+        public NeighborCursor reset(int index) {
+            this.node = index;
+            this.position = CompressedGraph.this.blockStart[index >>> BLOCK_SHIFT];
+            for (int skip = index & (BLOCK_SIZE - 1); skip > 0; skip--) {
+                this.skipRecord();
+            }
+            this.remaining = this.readVarint();
+            this.first = true;
+            return this;
+        }
+
+        /**
+         * Method to check whether there are successors left to decode
+         * @return true if next() can be called
+         */
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        /**
+         * Method to decode the next successor. Successors come out in increasing id order.
+         * @return id of the next successor
+         */
+        public int next() {
+            this.remaining--;
+            int value = this.readVarint();
+            if (this.first) {
+                this.first = false;
+                // zig-zag decode the signed offset from the node's own id
+                this.previous = this.node + ((value >>> 1) ^ -(value & 1));
+            } else {
+                this.previous = this.previous + value + 1;
+            }
+            return this.previous;
+        }
+
+        /**
+         * Helper method to move past one whole record without decoding its successors
+         */
+        private void skipRecord() {
+            byte[] bytes = CompressedGraph.this.data;
+            int degree = this.readVarint();
+            while (degree > 0) {
+                if (bytes[this.position++] >= 0) { // a byte without the high bit ends a number
+                    degree--;
+                }
+            }
+        }
+
+        /**
+         * Helper method to read one variable-length number at the current position
+         * @return the decoded number
+         */
+        private int readVarint() {
+            byte[] bytes = CompressedGraph.this.data;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[this.position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Constructor for CompressedGraph. Only called by of.
+     */
+    private CompressedGraph(String name, LabelDictionary labels, int[] blockStart, byte[] data, int edgeCount) {
+        this.name = name;
+        this.labels = labels;
+        this.blockStart = blockStart;
+        this.data = data;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Method to build a compressed copy of a graph
+     * @param name     name of the new graph
+     * @param theGraph graph to compress
+     * @return CompressedGraph with the same nodes and edges as theGraph
+     */
+    public static CompressedGraph of(String name, IGraph theGraph) {
+        IndexedGraph g = IndexedGraph.of(theGraph);
+        int n = g.size();
+        int[] targets = g.targets();
+
+        // renumber in breadth-first order so that nodes close together in the graph get close ids
+        int[] newId = new int[n];
+        Arrays.fill(newId, -1);
+        int[] order = new int[n];
+        int next = 0;
+        for (int start = 0; start < n; start++) {
+            if (newId[start] >= 0) {
+                continue;
+            }
+            int head = next;
+            newId[start] = next;
+            order[next++] = start;
+            while (head < next) {
+                int v = order[head++];
+                for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                    if (newId[targets[e]] < 0) {
+                        newId[targets[e]] = next;
+                        order[next++] = targets[e];
+                    }
+                }
+            }
+        }
+
+        LabelDictionary labels = new LabelDictionary();
+        for (int i = 0; i < n; i++) {
+            labels.intern(g.label(order[i])); // gets id i
+        }
+
+        int[] blockStart = new int[(n + BLOCK_SIZE - 1) >>> BLOCK_SHIFT];
+        byte[] data = new byte[Math.max(16, g.edgeCount() + n)];
+        int size = 0;
+        int[] successors = new int[16];
+        for (int i = 0; i < n; i++) {
+            int v = order[i];
+            int degree = g.endEdge(v) - g.firstEdge(v);
+            if (successors.length < degree) {
+                successors = new int[Math.max(degree, successors.length * 2)];
+            }
+            for (int k = 0; k < degree; k++) {
+                successors[k] = newId[targets[g.firstEdge(v) + k]];
+            }
+            Arrays.sort(successors, 0, degree);
+
+            if ((i & (BLOCK_SIZE - 1)) == 0) {
+                blockStart[i >>> BLOCK_SHIFT] = size;
+            }
+            // worst case is 5 bytes per number
+            if (data.length - size < 5 * (degree + 1)) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5 * (degree + 1)));
+            }
+            size = writeVarint(data, size, degree);
+            for (int k = 0; k < degree; k++) {
+                int value;
+                if (k == 0) {
+                    int offset = successors[0] - i;
+                    value = (offset << 1) ^ (offset >> 31); // zig-zag so small negative offsets stay small
+                } else {
+                    value = successors[k] - successors[k - 1] - 1;
+                }
+                size = writeVarint(data, size, value);
+            }
+        }
+        return new CompressedGraph(name, labels, blockStart, Arrays.copyOf(data, size), g.edgeCount());
+    }
+
+    /**
+     * Helper method to write one variable-length number
+     * @param data     array to write into
+     * @param position where to write
+     * @param value    non-negative number to write
+     * @return position just after the written bytes
+     */
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Method to create a cursor over this graph's successor lists
+     * @return a new NeighborCursor, positioned nowhere until reset is called
+     */
+    public NeighborCursor cursor() {
+        return new NeighborCursor();
+    }
+
+    /**
+     * Method to get the id of a node label
+     * @param label label of the node
+     * @return id of the node, or -1 if the label is not in the graph
+     */
+    public int indexOf(String label) {
+        return this.labels.indexOf(label);
+    }
+
+    /**
+     * Method to get the label of a node id
+     * @param index id of the node
+     * @return label of the node
+     */
+    public String label(int index) {
+        return this.labels.label(index);
+    }
+
+    /**
+     * Method to get the number of nodes in the graph
+     * @return number of nodes
+     */
+    public int size() {
+        return this.labels.size();
+    }
+
+    /**
+     * Method to get the number of bytes used by the encoded edges and the block offsets
+     * @return bytes used by the compressed adjacency
+     */
+    public long compressedBytes() {
+        return this.data.length + 4L * this.blockStart.length;
+    }
+
+    /**
+     * Method to get the number of bytes used by the node labels
+     * @return approximate heap size of the label dictionary
+     */
+    public long labelBytes() {
+        return this.labels.memoryBytes();
+    }
+
+    /**
+     * Method to get the number of bytes the same adjacency would use as an uncompressed int array layout: one int
+     * per edge plus one int offset per node
+     * @return bytes an uncompressed adjacency would use
+     */
+    public long uncompressedBytes() {
+        return 4L * this.edgeCount + 4L * (this.size() + 1);
+    }
+
+    /**
+     * Method to check with breadth-first search whether there is a route between two nodes, decoding successor
+     * lists straight from the compressed data. The queue and visited marks are the calling thread's
+     * TraversalWorkspace.
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean hasRoute(String fromNodeLabel, String toNodeLabel) {
+        return this.hasRoute(fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+    }
+
+    /**
+     * Method to check with breadth-first search whether there is a route between two nodes, using the given
+     * workspace for the queue and visited marks
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean hasRoute(String fromNodeLabel, String toNodeLabel, TraversalWorkspace workspace) {
+        int from = this.indexOf(fromNodeLabel);
+        int to = this.indexOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        workspace.begin(this.size());
+        int[] queue = workspace.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        workspace.visit(from);
+        NeighborCursor cursor = this.cursor();
+        while (head < tail) {
+            int v = queue[head++];
+            if (v == to) {
+                return true;
+            }
+            cursor.reset(v);
+            while (cursor.hasNext()) {
+                int w = cursor.next();
+                if (workspace.visit(w)) {
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * CompressedGraph is read-only; build a new one with of instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addNode(String descr) {
+        throw new UnsupportedOperationException("CompressedGraph is read-only");
+    }
+
+    /**
+     * CompressedGraph is read-only; build a new one with of instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("CompressedGraph is read-only");
+    }
+
+    /**
+     * CompressedGraph is read-only; build a new one with of instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("CompressedGraph is read-only");
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        //This method has O(N + E) runtime, and stops decoding a list once it passes the node's own id
+        int count = 0;
+        NeighborCursor cursor = this.cursor();
+        for (int v = 0; v < this.size(); v++) {
+            cursor.reset(v);
+            while (cursor.hasNext()) {
+                int w = cursor.next();
+                if (w >= v) {
+                    if (w == v) {
+                        count++;
+                    }
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int v = this.indexOf(fromNodeLabel);
+        if (v < 0) {
+            return false;
+        }
+        // successor lists have no duplicates, so only the count and a possible self edge matter
+        int others = 0;
+        NeighborCursor cursor = this.cursor().reset(v);
+        while (cursor.hasNext()) {
+            if (cursor.next() != v) {
+                others++;
+            }
+        }
+        return others == this.size() - 1;
+    }
+
+    /**
+     * Method to get all the immediate neighbors of a node. A neighbor is a node connected to the rootNode via a directed
+     * or undirected edge.
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root.
+     */
+    @Override
+    public HashSet<String> getNeighbors(String rootNode) {
+        HashSet<String> neighbors = new HashSet<>();
+        int v = this.indexOf(rootNode);
+        if (v >= 0) {
+            NeighborCursor cursor = this.cursor().reset(v);
+            while (cursor.hasNext()) {
+                neighbors.add(this.labels.label(cursor.next()));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Method to return all the nodes in a graph
+     * @return LinkedList<String> that contains all the Nodes
+     */
+    @Override
+    public LinkedList<String> getAllNodes() {
+        LinkedList<String> allNodes = new LinkedList<>();
+        for (int v = 0; v < this.size(); v++) {
+            allNodes.add(this.labels.label(v));
+        }
+        return allNodes;
+    }
+}
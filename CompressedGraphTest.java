@@ -0,0 +1,64 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.CompressedGraph;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+
+public class CompressedGraphTest {
+    // Assumes nothing, builds a side x side grid with undirected edges between horizontal and vertical neighbors
+    private IGraph makeGrid(int side) {
+        IGraph grid = new NodeEdgeGraph("grid");
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                if (c + 1 < side) grid.addUndirectedEdge("node " + r + "," + c, "node " + r + "," + (c + 1));
+                if (r + 1 < side) grid.addUndirectedEdge("node " + r + "," + c, "node " + (r + 1) + "," + c);
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    public void testSameNeighborsAsSource() {
+        IGraph source = makeGrid(20);
+        source.addDirectedEdge("node 3,3", "node 3,3");
+        source.addDirectedEdge("node 19,19", "node 0,0");
+        CompressedGraph compressed = CompressedGraph.of("compressed", source);
+        Assert.assertEquals(source.getAllNodes().size(), compressed.getAllNodes().size());
+        for (String node : source.getAllNodes()) {
+            Assert.assertEquals(source.getNeighbors(node), compressed.getNeighbors(node));
+        }
+        Assert.assertEquals(1, compressed.countSelfEdges());
+        Assert.assertTrue(compressed.hasRoute("node 0,0", "node 19,19"));
+    }
+
+    @Test
+    public void testReachesAllOthers() {
+        IGraph star = new NodeEdgeGraph("star");
+        star.addDirectedEdge("node 1", "node 2");
+        star.addDirectedEdge("node 1", "node 3");
+        star.addDirectedEdge("node 1", "node 1");
+        star.addDirectedEdge("node 2", "node 3");
+        CompressedGraph compressed = CompressedGraph.of("compressed", star);
+        Assert.assertTrue(compressed.reachesAllOthers("node 1"));
+        Assert.assertFalse(compressed.reachesAllOthers("node 2"));
+        Assert.assertFalse(compressed.hasRoute("node 3", "node 1"));
+    }
+
+    @Test
+    public void testMemoryReduction() {
+        CompressedGraph compressed = CompressedGraph.of("compressed", makeGrid(50));
+        Assert.assertTrue(compressed.compressedBytes() * 3 <= compressed.uncompressedBytes());
+        // packed labels stay well under a String, a boxed id and a HashMap entry per node (over 100 bytes)
+        Assert.assertTrue(compressed.labelBytes() < 64L * compressed.size());
+    }
+
+    @Test
+    public void testReadOnly() {
+        CompressedGraph compressed = CompressedGraph.of("compressed", makeGrid(2));
+        Assert.assertThrows(UnsupportedOperationException.class,
+                () -> compressed.addDirectedEdge("node 0,0", "node 1,1"));
+    }
+}
@@ -0,0 +1,282 @@
+package sol;
+
+import src.NoRouteException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breadth-first search over a graph that has been split into shards, each held by its own ShardWorker JVM process
+ * on this machine. The coordinator keeps only the labels and the partition; edges, visited marks and BFS parents
+ * live in the workers. The search runs one level at a time: the coordinator sends every worker the batch of
+ * (node, parent) pairs it owns from the current frontier, each worker visits the new ones and answers with their
+ * successors, and the coordinator sorts those into the next round's batches by owning shard.
+ * Queries are synchronized, since a search keeps every connection busy until it ends; threads that share an
+ * instance take turns. If a worker cannot be reached, the connections are out of step, so the instance closes
+ * itself and every later query fails.
+ */
+public class DistributedBfs implements AutoCloseable {
+    private final IndexedGraph nodes; // labels and node ids of the sharded graph, without its edges
+    private final int[] shard;
+    private final Process[] workers;
+    private final Socket[] sockets;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+    private boolean closed;
+
+    /**
+     * Constructor for DistributedBfs. Only called by launch, once every worker is connected.
+     */
+    private DistributedBfs(IndexedGraph nodes, int[] shard, Process[] workers, Socket[] sockets)
+            throws IOException {
+        this.nodes = nodes;
+        this.shard = shard;
+        this.workers = workers;
+        this.sockets = sockets;
+        this.in = new DataInputStream[sockets.length];
+        this.out = new DataOutputStream[sockets.length];
+        for (int s = 0; s < sockets.length; s++) {
+            this.in[s] = new DataInputStream(new BufferedInputStream(sockets[s].getInputStream()));
+            this.out[s] = new DataOutputStream(new BufferedOutputStream(sockets[s].getOutputStream()));
+        }
+    }
+
+    /**
+     * Method to write the shard files and start one worker process per shard. Only the graph's labels are kept
+     * afterwards, so the caller can drop the graph itself once this returns.
+     * @param graph     graph to search
+     * @param shard     shard of each node id, from GraphPartitioner
+     * @param numShards number of shards (and worker processes)
+     * @param directory directory for the shard files
+     * @return DistributedBfs connected to every worker
+     * @throws IOException if the files cannot be written or a worker cannot be started
+     */
+    public static DistributedBfs launch(IndexedGraph graph, int[] shard, int numShards, Path directory)
+            throws IOException {
+        Path[] files = GraphPartitioner.writeShards(graph, shard, numShards, directory);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        Process[] workers = new Process[numShards];
+        Socket[] sockets = new Socket[numShards];
+        try {
+            for (int s = 0; s < numShards; s++) {
+                workers[s] = new ProcessBuilder(java, "-cp", classPath, ShardWorker.class.getName(),
+                        files[s].toString()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            }
+            for (int s = 0; s < numShards; s++) {
+                // the worker prints its port once the shard is loaded
+                BufferedReader reader = new BufferedReader(new InputStreamReader(workers[s].getInputStream(),
+                        StandardCharsets.UTF_8));
+                String port = reader.readLine();
+                if (port == null) {
+                    throw new IOException("shard worker " + s + " exited before listening");
+                }
+                sockets[s] = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(port.trim()));
+                sockets[s].setTcpNoDelay(true);
+            }
+            return new DistributedBfs(graph.withoutEdges(), shard, workers, sockets);
+        } catch (IOException | RuntimeException e) {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    try {
+                        socket.close();
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+            }
+            for (Process worker : workers) {
+                if (worker != null) {
+                    worker.destroyForcibly();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Method to check whether there is a path from one node to another. Returns false if either label is not in
+     * the graph.
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     * @throws IOException if a worker cannot be reached, which closes this instance, or it is already closed
+     */
+    public synchronized boolean hasRoute(String fromNodeLabel, String toNodeLabel) throws IOException {
+        this.checkOpen();
+        int from = this.nodes.indexOf(fromNodeLabel);
+        int to = this.nodes.indexOf(toNodeLabel);
+        try {
+            return from >= 0 && to >= 0 && this.search(from, to);
+        } catch (IOException e) {
+            throw this.failed(e);
+        }
+    }
+
+    /**
+     * Method to produce a shortest path from one node to another, found level by level across the workers
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in the graph
+     * @throws IOException if a worker cannot be reached, which closes this instance, or it is already closed
+     */
+    public synchronized LinkedList<String> getRoute(String fromNodeLabel, String toNodeLabel)
+            throws NoRouteException, IOException {
+        this.checkOpen();
+        int from = this.nodes.indexOf(fromNodeLabel);
+        int to = this.nodes.indexOf(toNodeLabel);
+        try {
+            if (from < 0 || to < 0 || !this.search(from, to)) {
+                throw new NoRouteException(fromNodeLabel, toNodeLabel);
+            }
+            // ask the owner of each node on the way back for its parent
+            LinkedList<String> route = new LinkedList<>();
+            for (int node = to; node != -1; ) {
+                route.addFirst(this.nodes.label(node));
+                if (node == from) {
+                    break;
+                }
+                int owner = this.shard[node];
+                this.out[owner].writeInt(ShardWorker.PARENT);
+                this.out[owner].writeInt(node);
+                this.out[owner].flush();
+                node = this.in[owner].readInt();
+            }
+            return route;
+        } catch (IOException e) {
+            throw this.failed(e);
+        }
+    }
+
+    /**
+     * Helper method to fail a query on an instance that has been closed
+     */
+    private void checkOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("DistributedBfs is closed");
+        }
+    }
+
+    /**
+     * Helper method for a query that could not reach a worker: a connection may be left in the middle of a
+     * message, so the instance is closed before the error is passed on
+     * @return e, for the caller to throw
+     */
+    private IOException failed(IOException e) {
+        try {
+            this.close();
+        } catch (IOException suppressed) {
+            e.addSuppressed(suppressed);
+        }
+        return e;
+    }
+
+    /**
+     * Helper method that runs one level-synchronous search and leaves the BFS parents in the workers
+     * @return true if to was reached from from
+     */
+    private boolean search(int from, int to) throws IOException {
+        int numShards = this.workers.length;
+        for (int s = 0; s < numShards; s++) {
+            this.out[s].writeInt(ShardWorker.RESET);
+            this.out[s].writeInt(to);
+        }
+        // batch[s] holds (node, parent) pairs for shard s, two ints per pair
+        int[][] batch = new int[numShards][16];
+        int[] batchSize = new int[numShards];
+        batch[this.shard[from]][0] = from;
+        batch[this.shard[from]][1] = -1;
+        batchSize[this.shard[from]] = 2;
+
+        while (true) {
+            boolean anySent = false;
+            for (int s = 0; s < numShards; s++) {
+                if (batchSize[s] > 0) {
+                    this.out[s].writeInt(ShardWorker.EXPAND);
+                    this.out[s].writeInt(batchSize[s] / 2);
+                    for (int i = 0; i < batchSize[s]; i++) {
+                        this.out[s].writeInt(batch[s][i]);
+                    }
+                    anySent = true;
+                }
+                this.out[s].flush();
+            }
+            if (!anySent) {
+                return false;
+            }
+
+            // read every reply, even after a hit, so each connection stays in step
+            int[][] next = new int[numShards][16];
+            int[] nextSize = new int[numShards];
+            boolean found = false;
+            for (int s = 0; s < numShards; s++) {
+                if (batchSize[s] == 0) {
+                    continue;
+                }
+                if (this.in[s].readInt() == 1) {
+                    found = true;
+                    continue;
+                }
+                int pairs = this.in[s].readInt();
+                for (int i = 0; i < pairs; i++) {
+                    int node = this.in[s].readInt();
+                    int parent = this.in[s].readInt();
+                    int owner = this.shard[node];
+                    if (nextSize[owner] + 2 > next[owner].length) {
+                        next[owner] = Arrays.copyOf(next[owner], next[owner].length * 2);
+                    }
+                    next[owner][nextSize[owner]++] = node;
+                    next[owner][nextSize[owner]++] = parent;
+                }
+            }
+            if (found) {
+                return true;
+            }
+            batch = next;
+            batchSize = nextSize;
+        }
+    }
+
+    /**
+     * Method to shut down every worker process. Closing an instance that is already closed does nothing.
+     * @throws IOException if a connection cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        for (int s = 0; s < this.workers.length; s++) {
+            try {
+                this.out[s].writeInt(ShardWorker.SHUTDOWN);
+                this.out[s].flush();
+                this.sockets[s].close();
+            } catch (IOException ignored) {} // the worker is gone already; it is destroyed below if not
+        }
+        for (Process worker : this.workers) {
+            try {
+                if (!worker.waitFor(5, TimeUnit.SECONDS)) {
+                    worker.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                worker.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
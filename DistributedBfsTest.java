@@ -0,0 +1,139 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sol.DistributedBfs;
+import sol.GraphGenerator;
+import sol.GraphPartitioner;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.IndexedGraph;
+import sol.NodeEdgeGraph;
+import src.NoRouteException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+
+public class DistributedBfsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Sums the out-degrees of the nodes in a shard file
+    private long countShardEdges(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.readInt();
+            in.readInt();
+            int owned = in.readInt();
+            long edges = 0;
+            for (int i = 0; i < owned; i++) {
+                in.readInt();
+                int degree = in.readInt();
+                for (int k = 0; k < degree; k++) {
+                    in.readInt();
+                }
+                edges += degree;
+            }
+            return edges;
+        }
+    }
+
+    @Test
+    public void testLabelPropagationCutsFewerEdges() {
+        IGraph grid = new NodeEdgeGraph("grid");
+        new GraphGenerator(35).grid(40, 40, GraphGenerator.into(grid, true));
+        IndexedGraph graph = IndexedGraph.of(grid);
+        long hashCut = GraphPartitioner.countCutEdges(graph, GraphPartitioner.hashPartition(graph, 4));
+        int[] shard = GraphPartitioner.labelPropagation(graph, 4, 10, 35);
+        Assert.assertTrue(GraphPartitioner.countCutEdges(graph, shard) < hashCut / 2);
+        int[] shardSize = new int[4];
+        for (int s : shard) {
+            shardSize[s]++;
+        }
+        for (int size : shardSize) {
+            Assert.assertTrue(size <= 1600 / 4 * 1.05 + 1);
+        }
+    }
+
+    @Test
+    public void testDistributedRoutesMatchLocal() throws Exception {
+        NodeEdgeGraph local = new NodeEdgeGraph("random");
+        new GraphGenerator(35).erdosRenyi(400, 700, GraphGenerator.into(local, false));
+        IndexedGraph graph = IndexedGraph.of(local);
+        int[] shard = GraphPartitioner.labelPropagation(graph, 3, 5, 35);
+        Path directory = this.folder.newFolder("shards").toPath();
+        try (DistributedBfs bfs = DistributedBfs.launch(graph, shard, 3, directory)) {
+            // every edge is in exactly one shard file, so the workers get disjoint parts of the edge list
+            long shardEdges = 0;
+            for (int s = 0; s < 3; s++) {
+                shardEdges += countShardEdges(directory.resolve("shard-" + s + ".bin"));
+            }
+            Assert.assertEquals(graph.edgeCount(), shardEdges);
+
+            for (int i = 0; i < 40; i++) {
+                String from = "node " + i;
+                String to = "node " + (399 - i);
+                if (graph.indexOf(from) < 0 || graph.indexOf(to) < 0) {
+                    continue;
+                }
+                boolean expected = GraphUtils.hasRoute(local, from, to);
+                Assert.assertEquals(expected, bfs.hasRoute(from, to));
+                if (expected) {
+                    LinkedList<String> route = bfs.getRoute(from, to);
+                    Assert.assertEquals(GraphUtils.getRoute(local, from, to).size(), route.size());
+                    for (int k = 0; k + 1 < route.size(); k++) {
+                        Assert.assertTrue(local.getNeighbors(route.get(k)).contains(route.get(k + 1)));
+                    }
+                } else {
+                    Assert.assertThrows(NoRouteException.class, () -> bfs.getRoute(from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentQueriesAndClose() throws Exception {
+        NodeEdgeGraph local = new NodeEdgeGraph("chain");
+        for (int i = 0; i < 50; i++) {
+            local.addDirectedEdge("node " + i, "node " + (i + 1));
+        }
+        IndexedGraph graph = IndexedGraph.of(local);
+        Path directory = this.folder.newFolder("shards").toPath();
+        DistributedBfs bfs = DistributedBfs.launch(graph, GraphPartitioner.hashPartition(graph, 2), 2, directory);
+        try {
+            // queries from several threads take turns on the shared connections and all get the right answer
+            Thread[] threads = new Thread[4];
+            boolean[] correct = new boolean[threads.length];
+            for (int t = 0; t < threads.length; t++) {
+                int thread = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        boolean ok = true;
+                        for (int i = 0; i < 10; i++) {
+                            ok &= bfs.getRoute("node " + thread, "node 50").size() == 51 - thread;
+                            ok &= !bfs.hasRoute("node 50", "node " + thread);
+                        }
+                        correct[thread] = ok;
+                    } catch (Exception e) {
+                        correct[thread] = false;
+                    }
+                });
+                threads[t].start();
+            }
+            for (int t = 0; t < threads.length; t++) {
+                threads[t].join();
+                Assert.assertTrue(correct[t]);
+            }
+        } finally {
+            bfs.close();
+        }
+        bfs.close();
+        Assert.assertThrows(IOException.class, () -> bfs.hasRoute("node 0", "node 50"));
+    }
+}
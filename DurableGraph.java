@@ -0,0 +1,470 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Graph wrapper that makes every mutation durable. Each successful addNode, addDirectedEdge and addUndirectedEdge is
+ * appended to a write-ahead log in the graph's directory before it is applied to the graph. Records are collected in
+ * memory and written (and, unless the policy is NEVER, forced to disk) a batch at a time, so many mutations share
+ * one fsync; with ALWAYS, a mutation is on disk before the graph changes. A batch that does not fill up is written
+ * by a background flusher once its first record has waited maxDelayMillis, so with BATCH no mutation stays out of
+ * the log for much longer than that, however quiet the graph gets; with NEVER the same holds for reaching the OS. Labels are stored as a length and their
+ * UTF-8 bytes, so there is no limit on their length. On open, the latest
+ * snapshot is loaded and the log is replayed on top of it; compact folds the log into a new snapshot and starts an
+ * empty log. Every log record carries a CRC32, so a record torn by a crash is detected and dropped with everything
+ * after it. Replaying a mutation that is already in the graph has no effect, so a crash in the middle of compact
+ * is also safe.
+ */
+public class DurableGraph implements IGraph, AutoCloseable {
+    /**
+     * When the log is forced to disk
+     */
+    public enum FsyncPolicy {
+        ALWAYS, // every record is written and forced before the mutation returns
+        BATCH,  // records are written and forced once batchSize of them are pending or the oldest is maxDelayMillis old
+        NEVER   // records are written on the same schedule as BATCH, and the OS decides when they reach disk
+    }
+
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 1000;
+    static final String SNAPSHOT_FILE = "graph.snapshot";
+    static final String LOG_FILE = "graph.log";
+    private static final byte ADD_NODE = 1;
+    private static final byte ADD_DIRECTED_EDGE = 2;
+    private static final byte ADD_UNDIRECTED_EDGE = 3;
+
+    private final Path directory;
+    private final IGraph graph;
+    private final FsyncPolicy policy;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService flusher; // writes batches that wait too long; null for ALWAYS
+    private IOException flushFailure; // first error from the flusher, reported by the next mutation, sync or close
+    private final FileChannel log;
+    private final ByteArrayOutputStream pending;
+    private int pendingRecords;
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream record;
+    private final CRC32 crc;
+
+    /**
+     * Constructor for DurableGraph. Only called by open, after recovery.
+     */
+    private DurableGraph(Path directory, IGraph graph, FsyncPolicy policy, int batchSize, long maxDelayMillis,
+                         FileChannel log) {
+        this.directory = directory;
+        this.graph = graph;
+        this.policy = policy;
+        this.batchSize = policy == FsyncPolicy.ALWAYS ? 1 : batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        if (policy == FsyncPolicy.ALWAYS) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "DurableGraph flusher " + directory);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.log = log;
+        this.pending = new ByteArrayOutputStream();
+        this.recordBytes = new ByteArrayOutputStream();
+        this.record = new DataOutputStream(this.recordBytes);
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Method to open (or create) a durable graph in a directory, writing batches that do not fill up after
+     * DEFAULT_MAX_DELAY_MILLIS. The snapshot and log found there, if any, are replayed into emptyGraph, and a torn
+     * record at the end of the log is cut off.
+     * @param directory  directory holding the snapshot and log; created if missing
+     * @param emptyGraph graph with no nodes, which receives the recovered contents and all later mutations
+     * @param policy     when the log is forced to disk
+     * @param batchSize  number of records collected before they are written (ignored for ALWAYS)
+     * @return DurableGraph holding everything that was durable when the graph was last used
+     * @throws IOException if the files cannot be read or written
+     */
+    public static DurableGraph open(Path directory, IGraph emptyGraph, FsyncPolicy policy, int batchSize)
+            throws IOException {
+        return open(directory, emptyGraph, policy, batchSize, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Method to open (or create) a durable graph in a directory. The snapshot and log found there, if any, are
+     * replayed into emptyGraph, and a torn record at the end of the log is cut off.
+     * @param directory      directory holding the snapshot and log; created if missing
+     * @param emptyGraph     graph with no nodes, which receives the recovered contents and all later mutations
+     * @param policy         when the log is forced to disk
+     * @param batchSize      number of records collected before they are written (ignored for ALWAYS)
+     * @param maxDelayMillis longest a record waits in a batch that has not filled up before the batch is written
+     *                       anyway, and forced unless the policy is NEVER (ignored for ALWAYS)
+     * @return DurableGraph holding everything that was durable when the graph was last used
+     * @throws IOException if the files cannot be read or written
+     */
+    public static DurableGraph open(Path directory, IGraph emptyGraph, FsyncPolicy policy, int batchSize,
+                                    long maxDelayMillis) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        if (maxDelayMillis < 1) {
+            throw new IllegalArgumentException("maxDelayMillis must be at least 1");
+        }
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            readSnapshot(snapshot, emptyGraph);
+        }
+        FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = replayLog(log, emptyGraph);
+        log.truncate(validLength);
+        log.position(validLength);
+        return new DurableGraph(directory, emptyGraph, policy, batchSize, maxDelayMillis, log);
+    }
+
+    /**
+     * Helper method to load a snapshot: the node count, every label, then each node's neighbor labels
+     */
+    private static void readSnapshot(Path snapshot, IGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            int numNodes = in.readInt();
+            for (int i = 0; i < numNodes; i++) {
+                addNodeIfMissing(graph, readLabel(in));
+            }
+            for (int i = 0; i < numNodes; i++) {
+                String from = readLabel(in);
+                int degree = in.readInt();
+                for (int k = 0; k < degree; k++) {
+                    graph.addDirectedEdge(from, readLabel(in));
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to replay every intact log record into the graph
+     * @return length of the intact prefix of the log, in bytes
+     */
+    private static long replayLog(FileChannel log, IGraph graph) throws IOException {
+        log.position(0);
+        InputStream raw = new BufferedInputStream(Channels.newInputStream(log));
+        DataInputStream in = new DataInputStream(raw);
+        CRC32 crc = new CRC32();
+        long validLength = 0;
+        while (true) {
+            int length;
+            int checksum;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length <= 0 || length > log.size() - validLength - 8) {
+                    break; // garbage where a record header should be
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                break; // the last record was only partly written
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            applyRecord(payload, graph);
+            validLength += 8 + length;
+        }
+        return validLength;
+    }
+
+    /**
+     * Helper method to apply one decoded log record to the graph
+     */
+    private static void applyRecord(byte[] payload, IGraph graph) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        String first = readLabel(in);
+        if (op == ADD_NODE) {
+            addNodeIfMissing(graph, first);
+        } else if (op == ADD_DIRECTED_EDGE) {
+            graph.addDirectedEdge(first, readLabel(in));
+        } else if (op == ADD_UNDIRECTED_EDGE) {
+            graph.addUndirectedEdge(first, readLabel(in));
+        } else {
+            throw new IOException("unknown log record type " + op);
+        }
+    }
+
+    /**
+     * Helper method to write a label as its UTF-8 length and bytes
+     */
+    private static void writeLabel(DataOutputStream out, String label) throws IOException {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Helper method to read a label written by writeLabel
+     */
+    private static String readLabel(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method to add a node during recovery, where it may already be there from the snapshot
+     */
+    private static void addNodeIfMissing(IGraph graph, String label) {
+        try {
+            graph.addNode(label);
+        } catch (NodeNameExistsException ignored) {}
+    }
+
+    /**
+     * Helper method to append one record to the pending batch and write the batch if it is full. The first record
+     * of a batch schedules the flusher to write it after maxDelayMillis, in case it never fills up.
+     */
+    private void append(byte op, String first, String second) {
+        if (this.flushFailure != null) {
+            throw new UncheckedIOException(this.flushFailure);
+        }
+        try {
+            this.recordBytes.reset();
+            this.record.writeByte(op);
+            writeLabel(this.record, first);
+            if (second != null) {
+                writeLabel(this.record, second);
+            }
+            byte[] payload = this.recordBytes.toByteArray();
+            this.crc.reset();
+            this.crc.update(payload);
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(payload.length).putInt((int) this.crc.getValue());
+            this.pending.write(header.array());
+            this.pending.write(payload);
+            this.pendingRecords++;
+            if (this.pendingRecords >= this.batchSize) {
+                this.flush(this.policy != FsyncPolicy.NEVER);
+            } else if (this.pendingRecords == 1) {
+                this.flusher.schedule(this::flushLate, this.maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to write the pending batch to the log, optionally forcing it to disk
+     */
+    private void flush(boolean force) throws IOException {
+        if (this.pendingRecords > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.pending.toByteArray());
+            while (buffer.hasRemaining()) {
+                this.log.write(buffer);
+            }
+            this.pending.reset();
+            this.pendingRecords = 0;
+        }
+        if (force) {
+            this.log.force(false);
+        }
+    }
+
+    /**
+     * Helper method run by the flusher to write whatever is pending when a batch has waited maxDelayMillis. If the
+     * batch filled up in the meantime, this writes the next one a little early, which does no harm.
+     */
+    private synchronized void flushLate() {
+        if (!this.log.isOpen() || this.flushFailure != null) {
+            return;
+        }
+        try {
+            this.flush(this.policy != FsyncPolicy.NEVER);
+        } catch (IOException e) {
+            this.flushFailure = e;
+        }
+    }
+
+    /**
+     * Method to write every pending record to the log and force it to disk, whatever the policy. Once this returns,
+     * all mutations made so far survive a crash.
+     * @throws IOException if the log cannot be written, now or by the background flusher
+     */
+    public synchronized void sync() throws IOException {
+        if (this.flushFailure != null) {
+            throw this.flushFailure;
+        }
+        this.flush(true);
+    }
+
+    /**
+     * Method to fold the log into a new snapshot. The snapshot is written to a temporary file, forced to disk and
+     * moved into place, and the directory is forced so the move itself is durable; only then is the log emptied.
+     * @throws IOException if the files cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        this.flush(true);
+        Path snapshot = this.directory.resolve(SNAPSHOT_FILE);
+        Path temp = this.directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            LinkedList<String> allNodes = this.graph.getAllNodes();
+            out.writeInt(allNodes.size());
+            for (String label : allNodes) {
+                writeLabel(out, label);
+            }
+            for (String label : allNodes) {
+                HashSet<String> neighbors = this.graph.getNeighbors(label);
+                writeLabel(out, label);
+                out.writeInt(neighbors.size());
+                for (String neighbor : neighbors) {
+                    writeLabel(out, neighbor);
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel dir = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+        this.log.truncate(0);
+        this.log.position(0);
+        this.log.force(true);
+    }
+
+    /**
+     * Method to get the size of the log, not counting records still pending in memory
+     * @return log length in bytes
+     * @throws IOException if the log size cannot be read
+     */
+    public synchronized long getLogSize() throws IOException {
+        return this.log.size();
+    }
+
+    /**
+     * Method to get the graph that holds the recovered contents. Mutating it directly bypasses the log.
+     * @return the wrapped graph
+     */
+    public IGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Method to stop the flusher, write and force all pending records and close the log
+     * @throws IOException if the log cannot be written, now or by the background flusher
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.flusher != null) {
+            this.flusher.shutdownNow();
+        }
+        try {
+            if (this.flushFailure != null) {
+                throw this.flushFailure;
+            }
+            this.flush(true);
+        } finally {
+            this.log.close();
+        }
+    }
+
+    /**
+     * Method to log a new node and then add it to the graph. If the node already exists the graph is unchanged, and
+     * the record that was logged for it has no effect on replay.
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already associated with a node in the graph
+     */
+    @Override
+    public synchronized void addNode(String descr) throws NodeNameExistsException {
+        this.append(ADD_NODE, descr, null);
+        this.graph.addNode(descr);
+    }
+
+    /**
+     * Method to log a directed edge and then add it to the graph
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public synchronized void addDirectedEdge(String descr1, String descr2) {
+        this.append(ADD_DIRECTED_EDGE, descr1, descr2);
+        this.graph.addDirectedEdge(descr1, descr2);
+    }
+
+    /**
+     * Method to log an undirected edge as a single record and then add it to the graph
+     * @param descr1 first node to connect
+     * @param descr2 second node to connect
+     */
+    @Override
+    public synchronized void addUndirectedEdge(String descr1, String descr2) {
+        this.append(ADD_UNDIRECTED_EDGE, descr1, descr2);
+        this.graph.addUndirectedEdge(descr1, descr2);
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves, read from the wrapped graph
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public synchronized int countSelfEdges() {
+        return this.graph.countSelfEdges();
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node, read from the wrapped graph
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public synchronized boolean reachesAllOthers(String fromNodeLabel) {
+        return this.graph.reachesAllOthers(fromNodeLabel);
+    }
+
+    /**
+     * Method to get all the immediate neighbors of a node, read from the wrapped graph
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root.
+     */
+    @Override
+    public synchronized HashSet<String> getNeighbors(String rootNode) {
+        return this.graph.getNeighbors(rootNode);
+    }
+
+    /**
+     * Method to return all the nodes in a graph, read from the wrapped graph
+     * @return LinkedList<String> that contains all the Nodes
+     */
+    @Override
+    public synchronized LinkedList<String> getAllNodes() {
+        return this.graph.getAllNodes();
+    }
+}
@@ -0,0 +1,128 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sol.DurableGraph;
+import sol.NodeEdgeGraph;
+import src.NodeNameExistsException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+public class DurableGraphTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Fills graph with a small fixed set of nodes and edges
+    private void addSampleMutations(DurableGraph graph) throws NodeNameExistsException {
+        graph.addNode("node 1");
+        graph.addDirectedEdge("node 1", "node 2");
+        graph.addUndirectedEdge("node 2", "node 3");
+        graph.addDirectedEdge("node 4", "node 4");
+    }
+
+    private void assertSampleGraph(DurableGraph graph) {
+        Assert.assertEquals(4, graph.getAllNodes().size());
+        Assert.assertEquals("[node 2]", graph.getNeighbors("node 1").toString());
+        Assert.assertEquals("[node 2]", graph.getNeighbors("node 3").toString());
+        Assert.assertEquals(1, graph.countSelfEdges());
+    }
+
+    @Test
+    public void testRecoverFromLog() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        try (DurableGraph graph = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.BATCH, 3)) {
+            addSampleMutations(graph);
+            graph.sync();
+            // recovering while graph is still open simulates a crash after the last sync
+            try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                    DurableGraph.FsyncPolicy.BATCH, 3)) {
+                assertSampleGraph(recovered);
+            }
+        }
+    }
+
+    @Test
+    public void testMaxDelayWritesBatchThatNeverFills() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        try (DurableGraph graph = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.BATCH, 1000, 20)) {
+            addSampleMutations(graph);
+            // no sync: only the flusher can get the four records into the log
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (graph.getLogSize() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(graph.getLogSize() > 0);
+            try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                    DurableGraph.FsyncPolicy.BATCH, 1000, 20)) {
+                assertSampleGraph(recovered);
+            }
+        }
+    }
+
+    @Test
+    public void testCompactThenReplay() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        try (DurableGraph graph = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.ALWAYS, 1)) {
+            addSampleMutations(graph);
+            graph.compact();
+            Assert.assertEquals(0, graph.getLogSize());
+            graph.addDirectedEdge("node 4", "node 1");
+        }
+        try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.ALWAYS, 1)) {
+            Assert.assertEquals(2, recovered.getNeighbors("node 4").size());
+            Assert.assertThrows(NodeNameExistsException.class, () -> recovered.addNode("node 1"));
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        try (DurableGraph graph = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.NEVER, 100)) {
+            addSampleMutations(graph);
+        }
+        // half a record header, as if the process died in the middle of a write
+        Files.write(directory.resolve("graph.log"), new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+        try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.NEVER, 100)) {
+            assertSampleGraph(recovered);
+            recovered.addDirectedEdge("node 5", "node 1");
+        }
+        try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.NEVER, 100)) {
+            Assert.assertEquals(5, recovered.getAllNodes().size());
+        }
+    }
+
+    @Test
+    public void testLongLabelsSurviveLogAndSnapshot() throws Exception {
+        // longer than the 65535 bytes DataOutput.writeUTF can hold
+        String longLabel = String.join("", Collections.nCopies(20000, "n\u00e9\u4e2d"));
+        Path directory = this.folder.getRoot().toPath();
+        try (DurableGraph graph = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.ALWAYS, 1)) {
+            graph.addDirectedEdge(longLabel, "node 1");
+        }
+        try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.ALWAYS, 1)) {
+            Assert.assertTrue(recovered.getNeighbors(longLabel).contains("node 1"));
+            recovered.addDirectedEdge("node 1", longLabel);
+            recovered.compact();
+        }
+        try (DurableGraph recovered = DurableGraph.open(directory, new NodeEdgeGraph("g"),
+                DurableGraph.FsyncPolicy.ALWAYS, 1)) {
+            Assert.assertTrue(recovered.getNeighbors("node 1").contains(longLabel));
+            Assert.assertEquals(2, recovered.getAllNodes().size());
+        }
+    }
+}
@@ -3,29 +3,44 @@ package sol;
 import src.NodeNameExistsException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 
 /**
  * A 2D array that represents a graph via an adjacency matrix in which boolean values are true if an edge exists between
- * the vertices represented by the row and column of that cell. HashMap of nodes is used to keep track of the index of
- * each node.
+ * the vertices represented by the row and column of that cell. Node labels are kept in a LabelDictionary, and two
+ * int arrays relate each label's dictionary id to its row in the matrix and back.
  */
 public class EdgeArrayGraph implements IGraph {
     String name;
     private ArrayList<ArrayList<Boolean>> adjacencyMatrix;
-    private HashMap<String, Integer> nodeIndexMap;
+    private final LabelDictionary labels;
+    private int[] rowOfLabel; // dictionary id -> row in adjacencyMatrix, or -1 if the label is not in this graph
+    private int[] labelOfRow; // row in adjacencyMatrix -> dictionary id
 
     /**
-     * Constructor for EdgeArrayGraph. Initializes the graph's name, the adjacencyMatrix and the nodeToIndex Map.
-     * nodeIndexMap relates Nodes to their index in the adjacencyMatrix. The adjacencyMatrix hold a 2D array of booleans.
-     * These are set to true if there is an undirected or directed edge between the two nodes at that index.
+     * Constructor for EdgeArrayGraph. Initializes the graph's name, the adjacencyMatrix and a label dictionary of its
+     * own. The adjacencyMatrix hold a 2D array of booleans. These are set to true if there is an undirected or
+     * directed edge between the two nodes at that index.
      * @param name
      */
     public EdgeArrayGraph(String name) {
+        this(name, new LabelDictionary());
+    }
+
+    /**
+     * Constructor for EdgeArrayGraph that stores its labels in a given dictionary, which may be shared with other
+     * graphs. Labels the dictionary already holds are not nodes of this graph until they are added.
+     * @param name   name of the graph
+     * @param labels dictionary to intern node labels into
+     */
+    public EdgeArrayGraph(String name, LabelDictionary labels) {
         this.name = name;
-        this.nodeIndexMap = new HashMap<>();
+        this.labels = labels;
+        this.rowOfLabel = new int[0];
+        this.labelOfRow = new int[16];
         this.adjacencyMatrix = new ArrayList<>();
     }
 
@@ -35,7 +50,11 @@ public class EdgeArrayGraph implements IGraph {
      */
     @Override
     public LinkedList<String> getAllNodes() {
-       return new LinkedList<>(this.nodeIndexMap.keySet());
+        LinkedList<String> allNodes = new LinkedList<>();
+        for (int i = 0; i < this.adjacencyMatrix.size(); i++) {
+            allNodes.add(this.getIndexLabel(i));
+        }
+        return allNodes;
     }
 
     /**
@@ -47,11 +66,21 @@ public class EdgeArrayGraph implements IGraph {
      * associated with a node in the graph
      */
     public void addNode(String descr) throws NodeNameExistsException {
-        if (this.nodeIndexMap.containsKey(descr)){
+        if (this.getLabelIndex(descr) >= 0){
             throw new NodeNameExistsException();
         }
         int newNodeIndex = this.adjacencyMatrix.size();
-        this.nodeIndexMap.put(descr, newNodeIndex);
+        int id = this.labels.intern(descr);
+        if (id >= this.rowOfLabel.length) {
+            int oldLength = this.rowOfLabel.length;
+            this.rowOfLabel = Arrays.copyOf(this.rowOfLabel, Math.max(2 * oldLength, this.labels.size()));
+            Arrays.fill(this.rowOfLabel, oldLength, this.rowOfLabel.length, -1);
+        }
+        this.rowOfLabel[id] = newNodeIndex;
+        if (newNodeIndex == this.labelOfRow.length) {
+            this.labelOfRow = Arrays.copyOf(this.labelOfRow, 2 * newNodeIndex);
+        }
+        this.labelOfRow[newNodeIndex] = id;
         this.adjacencyMatrix.add(new ArrayList<>(this.adjacencyMatrix.size()+1));
         for (ArrayList<Boolean> booleans : this.adjacencyMatrix) {
             this.adjacencyMatrix.get(newNodeIndex).add(false);
@@ -77,8 +106,8 @@ public class EdgeArrayGraph implements IGraph {
             this.addNode(descr2);
         } catch (NodeNameExistsException ignored){}
 
-        Integer index2 = this.nodeIndexMap.get(descr2);
-        Integer index1 = this.nodeIndexMap.get(descr1);
+        int index2 = this.getLabelIndex(descr2);
+        int index1 = this.getLabelIndex(descr1);
         this.adjacencyMatrix.get(index1).set(index2,true);
     }
 
@@ -124,7 +153,7 @@ public class EdgeArrayGraph implements IGraph {
     public boolean reachesAllOthers(String fromNodeLabel) {
         //This method has O(N) runtime where N is the number of Nodes in the Graph
 
-        Integer nodeIndex = this.nodeIndexMap.get(fromNodeLabel);
+        int nodeIndex = this.getLabelIndex(fromNodeLabel);
         int numNodes = this.adjacencyMatrix.size();
         for (int i = 0; i < numNodes; i++) {
             if (i != nodeIndex && !this.adjacencyMatrix.get(nodeIndex).get(i)) {
@@ -144,16 +173,17 @@ public class EdgeArrayGraph implements IGraph {
      */
     @Override
     public HashSet<String> getNeighbors(String rootNode) {
-        HashSet<String> neighbors = new HashSet<>();
-        Integer nodeIndex = this.nodeIndexMap.get(rootNode);
+        int nodeIndex = this.getLabelIndex(rootNode);
 
         // If nodeLabel does not exist
-        if (nodeIndex == null) {
-            return neighbors; // Return an empty set
+        if (nodeIndex < 0) {
+            return new HashSet<>(); // Return an empty set
         }
+        HashSet<String> neighbors = new HashSet<>();
         // Get the neighbors of the node
-        for (int i = 0; i < this.adjacencyMatrix.size(); i++) {
-            if (this.adjacencyMatrix.get(nodeIndex).get(i)) {
+        ArrayList<Boolean> row = this.adjacencyMatrix.get(nodeIndex);
+        for (int i = 0; i < row.size(); i++) {
+            if (row.get(i)) {
                 neighbors.add(this.getIndexLabel(i));
             }
         }
@@ -162,17 +192,67 @@ public class EdgeArrayGraph implements IGraph {
 
 
     /**
-     * Method to get the Node associated with an index by looping through the nodeIndexMap
-     * @param index index of desired node
-     * @return Node at given index
+     * Method to compute which nodes can reach which others, for every pair at once. The adjacency matrix is packed
+     * into 64 cells per long and closed with blocked Warshall, with the row updates split across cores. This is
+     * much cheaper than one hasRoute search per node when most pairs need answering.
+     * @return TransitiveClosure that answers reachability queries for this graph as it is now
      */
-    private String getIndexLabel(int index) {
-        for (HashMap.Entry<String, Integer> string : this.nodeIndexMap.entrySet()) {
-            if (string.getValue() == index) {
-                return string.getKey();
+    public TransitiveClosure transitiveClosure() {
+        int n = this.adjacencyMatrix.size();
+        String[] labels = new String[n];
+        HashMap<String, Integer> nodeIndexMap = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            labels[i] = this.getIndexLabel(i);
+            nodeIndexMap.put(labels[i], i);
+        }
+        int words = (n + 63) >>> 6;
+        long[][] rows = new long[n][words];
+        for (int i = 0; i < n; i++) {
+            ArrayList<Boolean> row = this.adjacencyMatrix.get(i);
+            for (int j = 0; j < n; j++) {
+                if (row.get(j)) {
+                    rows[i][j >>> 6] |= 1L << j;
+                }
             }
         }
-        return null;
+        return new TransitiveClosure(labels, nodeIndexMap, rows);
+    }
+
+    /**
+     * Method to get the number of rows in the adjacencyMatrix, which is the number of nodes in the graph
+     * @return number of rows
+     */
+    int rowCount() {
+        return this.adjacencyMatrix.size();
+    }
+
+    /**
+     * Method to check whether the cell at a row and column of the adjacencyMatrix holds an edge
+     * @param row    index of the source node
+     * @param column index of the target node
+     * @return true if there is an edge from the node at row to the node at column
+     */
+    boolean hasEdge(int row, int column) {
+        return this.adjacencyMatrix.get(row).get(column);
+    }
+
+    /**
+     * Method to get the label of the node at an index of the adjacencyMatrix, through its dictionary id
+     * @param index index of desired node
+     * @return label of the node at given index
+     */
+    String getIndexLabel(int index) {
+        return this.labels.label(this.labelOfRow[index]);
+    }
+
+    /**
+     * Method to get the index in the adjacencyMatrix of a node label
+     * @param label label of the node
+     * @return index of the node, or -1 if the label is not a node of this graph
+     */
+    int getLabelIndex(String label) {
+        int id = this.labels.indexOf(label);
+        return id < 0 || id >= this.rowOfLabel.length ? -1 : this.rowOfLabel[id];
     }
 
 }
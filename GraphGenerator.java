@@ -0,0 +1,229 @@
+package sol;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of synthetic graphs for scale and regression testing. Edges are streamed to an EdgeSink one at a
+ * time and never stored, so graphs with tens of millions of edges can be written to disk without holding them in
+ * memory. The same seed always produces the same edges in the same order. Nodes are labelled "node 0", "node 1", ...
+ */
+public class GraphGenerator {
+
+    /**
+     * Receiver for generated edges
+     */
+    public interface EdgeSink {
+        /**
+         * Method called once for every generated edge
+         * @param from label of the source node
+         * @param to   label of the target node
+         */
+        void edge(String from, String to);
+    }
+
+    private final long seed;
+
+    /**
+     * Constructor for GraphGenerator.
+     * @param seed seed for every random choice the generator makes
+     */
+    public GraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Method to make a sink that adds every edge to a graph
+     * @param theGraph   graph to add edges to
+     * @param undirected true to add each edge with addUndirectedEdge, false for addDirectedEdge
+     * @return EdgeSink writing into theGraph
+     */
+    public static EdgeSink into(IGraph theGraph, boolean undirected) {
+        if (undirected) {
+            return theGraph::addUndirectedEdge;
+        }
+        return theGraph::addDirectedEdge;
+    }
+
+    /**
+     * Sink that writes one edge per line, as the two labels separated by a tab. Must be closed to flush the file.
+     */
+    public static class FileSink implements EdgeSink, AutoCloseable {
+        private final BufferedWriter writer;
+        private long edgeCount;
+
+        /**
+         * Constructor for FileSink. Creates or truncates the file.
+         * @param path file to write to
+         * @throws IOException if the file cannot be opened
+         */
+        public FileSink(Path path) throws IOException {
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void edge(String from, String to) {
+            try {
+                this.writer.write(from);
+                this.writer.write('\t');
+                this.writer.write(to);
+                this.writer.write('\n');
+                this.edgeCount++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Method to get the number of edges written so far
+         * @return number of edges written
+         */
+        public long getEdgeCount() {
+            return this.edgeCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.writer.close();
+        }
+    }
+
+    /**
+     * Helper method to get the label of a node number
+     */
+    static String label(long node) {
+        return "node " + node;
+    }
+
+    /**
+     * Method to generate a chain node 0 -> node 1 -> ... -> node (numNodes - 1)
+     * @param numNodes number of nodes in the chain
+     * @param sink     receiver of the edges
+     */
+    public void chain(long numNodes, EdgeSink sink) {
+        for (long i = 0; i + 1 < numNodes; i++) {
+            sink.edge(label(i), label(i + 1));
+        }
+    }
+
+    /**
+     * Method to generate a rows x cols grid with an edge from every cell to its right and lower neighbors. Node
+     * r * cols + c is the cell in row r and column c. A grid is bipartite, so it can always be scheduled.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param sink receiver of the edges
+     */
+    public void grid(long rows, long cols, EdgeSink sink) {
+        for (long r = 0; r < rows; r++) {
+            for (long c = 0; c < cols; c++) {
+                long node = r * cols + c;
+                if (c + 1 < cols) sink.edge(label(node), label(node + 1));
+                if (r + 1 < rows) sink.edge(label(node), label(node + cols));
+            }
+        }
+    }
+
+    /**
+     * Method to generate an Erdos-Renyi style random graph: numEdges edges, each between two nodes picked uniformly
+     * at random. The same pair can come up more than once, which IGraph implementations ignore.
+     * @param numNodes number of nodes to pick from
+     * @param numEdges number of edges to generate
+     * @param sink     receiver of the edges
+     */
+    public void erdosRenyi(long numNodes, long numEdges, EdgeSink sink) {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        for (long e = 0; e < numEdges; e++) {
+            sink.edge(label(random.nextLong(numNodes)), label(random.nextLong(numNodes)));
+        }
+    }
+
+    /**
+     * Method to generate a random bipartite graph: numEdges edges, each from one of the first leftNodes nodes to one
+     * of the next rightNodes nodes.
+     * @param leftNodes  number of nodes on the left side (node 0 to node leftNodes - 1)
+     * @param rightNodes number of nodes on the right side
+     * @param numEdges   number of edges to generate
+     * @param sink       receiver of the edges
+     */
+    public void bipartite(long leftNodes, long rightNodes, long numEdges, EdgeSink sink) {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        for (long e = 0; e < numEdges; e++) {
+            sink.edge(label(random.nextLong(leftNodes)), label(leftNodes + random.nextLong(rightNodes)));
+        }
+    }
+
+    /**
+     * Method to generate a random bipartite graph as in bipartite, then add numCycles triangles, each through two
+     * different random left nodes and one random right node. A triangle is an odd cycle, so the result cannot be
+     * scheduled.
+     * @param leftNodes  number of nodes on the left side, at least 2
+     * @param rightNodes number of nodes on the right side
+     * @param numEdges   number of bipartite edges to generate
+     * @param numCycles  number of triangles to add
+     * @param sink       receiver of the edges
+     */
+    public void bipartiteWithOddCycles(long leftNodes, long rightNodes, long numEdges, long numCycles, EdgeSink sink) {
+        if (numCycles > 0 && leftNodes < 2) {
+            throw new IllegalArgumentException("a triangle needs at least 2 left nodes");
+        }
+        this.bipartite(leftNodes, rightNodes, numEdges, sink);
+        SplittableRandom random = new SplittableRandom(this.seed ^ 0x5DEECE66DL);
+        for (long k = 0; k < numCycles; k++) {
+            long left1 = random.nextLong(leftNodes);
+            long left2 = random.nextLong(leftNodes);
+            while (left2 == left1) { // the same node twice would be a self-loop, not a triangle
+                left2 = random.nextLong(leftNodes);
+            }
+            String a = label(left1);
+            String b = label(left2);
+            String c = label(leftNodes + random.nextLong(rightNodes));
+            sink.edge(a, b);
+            sink.edge(b, c);
+            sink.edge(c, a);
+        }
+    }
+
+    /**
+     * Method to generate a power-law graph with the R-MAT model. Each edge is placed by walking down scale levels of
+     * the adjacency matrix, picking the top-left, top-right, bottom-left or bottom-right quarter with probabilities
+     * a, b, c and 1 - a - b - c. Skewed probabilities (the usual choice is 0.57, 0.19, 0.19) give a few very
+     * high-degree nodes and many low-degree ones, like real networks.
+     * @param scale    log2 of the number of nodes
+     * @param numEdges number of edges to generate
+     * @param a        probability of the top-left quarter
+     * @param b        probability of the top-right quarter
+     * @param c        probability of the bottom-left quarter
+     * @param sink     receiver of the edges
+     */
+    public void rmat(int scale, long numEdges, double a, double b, double c, EdgeSink sink) {
+        if (scale < 1 || scale > 62 || a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("invalid R-MAT parameters");
+        }
+        SplittableRandom random = new SplittableRandom(this.seed);
+        for (long e = 0; e < numEdges; e++) {
+            long from = 0;
+            long to = 0;
+            for (int level = 0; level < scale; level++) {
+                double p = random.nextDouble();
+                from <<= 1;
+                to <<= 1;
+                if (p < a) {
+                    continue;
+                } else if (p < a + b) {
+                    to |= 1;
+                } else if (p < a + b + c) {
+                    from |= 1;
+                } else {
+                    from |= 1;
+                    to |= 1;
+                }
+            }
+            sink.edge(label(from), label(to));
+        }
+    }
+}
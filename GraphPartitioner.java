@@ -0,0 +1,171 @@
+package sol;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a graph into shards so that it can be spread over several worker processes. A partition is an int array
+ * that gives the shard of each node id of an IndexedGraph. Hash partitioning is cheap and balanced but ignores the
+ * edges; label propagation starts from it and repeatedly moves nodes to the shard most of their neighbors are in,
+ * which cuts far fewer edges on graphs with community or spatial structure.
+ */
+public class GraphPartitioner {
+    // how much larger than n / shards a shard may grow during label propagation
+    private static final double BALANCE_SLACK = 0.05;
+
+    /**
+     * Constructor for GraphPartitioner.
+     */
+    public GraphPartitioner() {
+    }
+
+    /**
+     * Method to partition by hashing each node's label
+     * @param graph     graph to partition
+     * @param numShards number of shards
+     * @return shard of each node id
+     */
+    public static int[] hashPartition(IndexedGraph graph, int numShards) {
+        int[] shard = new int[graph.size()];
+        for (int v = 0; v < graph.size(); v++) {
+            shard[v] = Math.floorMod(graph.label(v).hashCode() * 0x9E3779B9, numShards);
+        }
+        return shard;
+    }
+
+    /**
+     * Method to partition with balanced label propagation. Starting from the hash partition, every round visits the
+     * nodes in a random order and moves each one to the shard that holds most of its neighbors (counting edges in
+     * both directions), as long as that shard is not full. Shards are capped at (1 + 5%) * n / numShards nodes.
+     * @param graph     graph to partition
+     * @param numShards number of shards
+     * @param rounds    number of passes over the nodes
+     * @param seed      seed for the visiting order
+     * @return shard of each node id
+     */
+    public static int[] labelPropagation(IndexedGraph graph, int numShards, int rounds, long seed) {
+        int n = graph.size();
+        int[] shard = hashPartition(graph, numShards);
+        IndexedGraph reverse = graph.reverse();
+        int capacity = (int) Math.ceil((double) n / numShards * (1 + BALANCE_SLACK)) + 1;
+        int[] shardSize = new int[numShards];
+        for (int v = 0; v < n; v++) {
+            shardSize[shard[v]]++;
+        }
+
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        int[] neighborCount = new int[numShards];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int round = 0; round < rounds; round++) {
+            for (int i = n - 1; i > 0; i--) { // shuffle the visiting order
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            int moved = 0;
+            for (int v : order) {
+                countNeighborShards(graph, v, shard, neighborCount);
+                countNeighborShards(reverse, v, shard, neighborCount);
+                int best = shard[v];
+                for (int s = 0; s < numShards; s++) {
+                    if (neighborCount[s] > neighborCount[best] && shardSize[s] < capacity) {
+                        best = s;
+                    }
+                }
+                Arrays.fill(neighborCount, 0);
+                if (best != shard[v]) {
+                    shardSize[shard[v]]--;
+                    shardSize[best]++;
+                    shard[v] = best;
+                    moved++;
+                }
+            }
+            if (moved == 0) {
+                break;
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Helper method to add up how many successors of v (in the given direction) sit in each shard
+     */
+    private static void countNeighborShards(IndexedGraph graph, int v, int[] shard, int[] neighborCount) {
+        int[] targets = graph.targets();
+        for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+            if (targets[e] != v) {
+                neighborCount[shard[targets[e]]]++;
+            }
+        }
+    }
+
+    /**
+     * Method to count the edges whose two ends are in different shards
+     * @param graph the partitioned graph
+     * @param shard shard of each node id
+     * @return number of cut edges
+     */
+    public static long countCutEdges(IndexedGraph graph, int[] shard) {
+        long cut = 0;
+        int[] targets = graph.targets();
+        for (int v = 0; v < graph.size(); v++) {
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                if (shard[targets[e]] != shard[v]) {
+                    cut++;
+                }
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * Method to write one file per shard, named shard-0.bin, shard-1.bin, ... Each file holds the total number of
+     * nodes, the shard id and the successor lists of the nodes the shard owns. Labels are not written; workers only
+     * ever see node ids.
+     * @param graph     the partitioned graph
+     * @param shard     shard of each node id
+     * @param numShards number of shards
+     * @param directory directory to write the files into
+     * @return paths of the shard files, indexed by shard
+     * @throws IOException if a file cannot be written
+     */
+    public static Path[] writeShards(IndexedGraph graph, int[] shard, int numShards, Path directory)
+            throws IOException {
+        int n = graph.size();
+        int[] owned = new int[numShards];
+        for (int v = 0; v < n; v++) {
+            owned[shard[v]]++;
+        }
+        Path[] files = new Path[numShards];
+        int[] targets = graph.targets();
+        for (int s = 0; s < numShards; s++) {
+            files[s] = directory.resolve("shard-" + s + ".bin");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(files[s])))) {
+                out.writeInt(n);
+                out.writeInt(s);
+                out.writeInt(owned[s]);
+                for (int v = 0; v < n; v++) {
+                    if (shard[v] != s) {
+                        continue;
+                    }
+                    out.writeInt(v);
+                    out.writeInt(graph.endEdge(v) - graph.firstEdge(v));
+                    for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                        out.writeInt(targets[e]);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+}
@@ -2,10 +2,9 @@ package sol;
 
 import src.NoRouteException;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Stack;
 
 /**
  * Class that performs operations on graphs. Has method to check if two nodes are connected in a graph and a method to
@@ -23,6 +22,8 @@ public class GraphUtils {
      * Method to use breadth-first-search to check whether there is a path
      * from one node to another in a graph. Assumes that both fromNodeLabel
      * and toNodeLabel are valid node labels in theGraph.
+     * Uses the calling thread's TraversalWorkspace, so it allocates nothing once the workspace has grown to the
+     * size of the graph.
      *
      * @param theGraph      the graph to traverse
      * @param fromNodeLabel name of the node from which to start searching
@@ -30,21 +31,45 @@ public class GraphUtils {
      * @return boolean indicating whether such a route exists
      */
     public static boolean hasRoute(NodeEdgeGraph theGraph, String fromNodeLabel, String toNodeLabel) {
+        return hasRoute(theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+    }
+
+    /**
+     * Method to use breadth-first-search to check whether there is a path
+     * from one node to another in a graph, using the given workspace for the queue and visited marks.
+     * Returns false if either label is not in theGraph.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(NodeEdgeGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                   TraversalWorkspace workspace) {
         NodeEdgeGraph.Node fromNode = theGraph.getNode(fromNodeLabel);
         NodeEdgeGraph.Node toNode = theGraph.getNode(toNodeLabel);
+        if (fromNode == null || toNode == null) {
+            return false;
+        }
         // set up and initialize data structures
-        HashSet<NodeEdgeGraph.Node> visited = new HashSet<>();
-        LinkedList<NodeEdgeGraph.Node> toCheck = new LinkedList<>();
-        toCheck.add(fromNode);
+        workspace.begin(theGraph.nodesById.size());
+        int[] queue = workspace.queue;
+        int head = 0;
+        int tail = 0;
+        workspace.visit(fromNode.id);
+        queue[tail++] = fromNode.id;
 
         // process nodes to search for toNode
-        while (!toCheck.isEmpty()) {
-            NodeEdgeGraph.Node checkNode = toCheck.pop();
-            if (checkNode.equals(toNode)) {
+        while (head < tail) {
+            NodeEdgeGraph.Node checkNode = theGraph.nodesById.get(queue[head++]);
+            if (checkNode == toNode) {
                 return true;
-            } else if (!visited.contains(checkNode)) {
-                visited.add(checkNode);
-                toCheck.addAll(checkNode.nextNodes);
+            }
+            for (NodeEdgeGraph.Node next : checkNode.nextNodes) {
+                if (workspace.visit(next.id)) {
+                    queue[tail++] = next.id;
+                }
             }
         }
         return false;
@@ -66,6 +91,21 @@ public class GraphUtils {
      * @throws NoRouteException if no such path exists
      */
     public static LinkedList<String> getRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel) throws NoRouteException {
+        if (theGraph instanceof NodeEdgeGraph) { //node ids let us search with the workspace instead of maps and sets
+            return getRoute((NodeEdgeGraph) theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+        }
+        if (theGraph instanceof IndexedGraph) {
+            return getRoute((IndexedGraph) theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+        }
+        if (theGraph instanceof SubgraphView) {
+            return getRoute((SubgraphView) theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+        }
+        if (theGraph instanceof EdgeArrayGraph) {
+            return getRoute((EdgeArrayGraph) theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+        }
+        if (theGraph instanceof CompressedGraph) {
+            return getRoute((CompressedGraph) theGraph, fromNodeLabel, toNodeLabel, TraversalWorkspace.get());
+        }
         //get map of parents from the fromNode to the toNode
         HashMap<String, String> parentMap = trackParents(theGraph, fromNodeLabel, toNodeLabel);
 
@@ -80,10 +120,280 @@ public class GraphUtils {
         return route;
     }
 
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path
+     * from fromNodeLabel to toNodeLabel, using breadth-first-search over node ids with the given workspace for the
+     * queue, parent array and visited marks. The returned route is the only thing allocated once the workspace has
+     * grown to the size of the graph.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in theGraph
+     */
+    public static LinkedList<String> getRoute(NodeEdgeGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              TraversalWorkspace workspace) throws NoRouteException {
+        NodeEdgeGraph.Node fromNode = theGraph.getNode(fromNodeLabel);
+        NodeEdgeGraph.Node toNode = theGraph.getNode(toNodeLabel);
+        if (fromNode == null || toNode == null) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        workspace.begin(theGraph.nodesById.size());
+        int[] queue = workspace.queue;
+        int[] parent = workspace.parent;
+        int head = 0;
+        int tail = 0;
+        workspace.visit(fromNode.id);
+        parent[fromNode.id] = -1;
+        queue[tail++] = fromNode.id;
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == toNode.id) {
+                //walk the parents back from the toNode, adding each one before its child
+                LinkedList<String> route = new LinkedList<>();
+                for (int id = current; id != -1; id = parent[id]) {
+                    route.addFirst(theGraph.nodesById.get(id).descr);
+                }
+                return route;
+            }
+            for (NodeEdgeGraph.Node next : theGraph.nodesById.get(current).nextNodes) {
+                if (workspace.visit(next.id)) {
+                    parent[next.id] = current;
+                    queue[tail++] = next.id;
+                }
+            }
+        }
+        throw new NoRouteException(fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to use breadth-first-search over the node ids of an IndexedGraph to check whether there is a path
+     * from one node to another, using the given workspace for the queue and visited marks.
+     * Returns false if either label is not in theGraph.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(IndexedGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                   TraversalWorkspace workspace) {
+        int from = theGraph.indexOf(fromNodeLabel);
+        int to = theGraph.indexOf(toNodeLabel);
+        return from >= 0 && to >= 0 && searchIndexed(theGraph, null, from, to, workspace);
+    }
+
+    /**
+     * Method to use breadth-first-search to check whether there is a path from one node to another that stays
+     * inside a SubgraphView, searching the view's parent and skipping nodes outside the view.
+     * Returns false if either label is not in the view.
+     *
+     * @param theView       the view to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(SubgraphView theView, String fromNodeLabel, String toNodeLabel,
+                                   TraversalWorkspace workspace) {
+        return theView.contains(fromNodeLabel) && theView.contains(toNodeLabel)
+                && searchIndexed(theView.getParent(), theView, theView.getParent().indexOf(fromNodeLabel),
+                theView.getParent().indexOf(toNodeLabel), workspace);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path from fromNodeLabel to toNodeLabel in an
+     * IndexedGraph, using breadth-first-search over node ids with the given workspace for the queue, parent array
+     * and visited marks.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in theGraph
+     */
+    public static LinkedList<String> getRoute(IndexedGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              TraversalWorkspace workspace) throws NoRouteException {
+        return routeIndexed(theGraph, null, fromNodeLabel, toNodeLabel, workspace);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path from fromNodeLabel to toNodeLabel
+     * inside a SubgraphView, searching the view's parent and skipping nodes outside the view.
+     *
+     * @param theView       the view to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in the view
+     */
+    public static LinkedList<String> getRoute(SubgraphView theView, String fromNodeLabel, String toNodeLabel,
+                                              TraversalWorkspace workspace) throws NoRouteException {
+        if (!theView.contains(fromNodeLabel) || !theView.contains(toNodeLabel)) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        return routeIndexed(theView.getParent(), theView, fromNodeLabel, toNodeLabel, workspace);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path from fromNodeLabel to toNodeLabel in an
+     * EdgeArrayGraph, using breadth-first-search over the rows of its adjacency matrix with the given workspace for
+     * the queue, parent array and visited marks.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in theGraph
+     */
+    public static LinkedList<String> getRoute(EdgeArrayGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              TraversalWorkspace workspace) throws NoRouteException {
+        int from = theGraph.getLabelIndex(fromNodeLabel);
+        int to = theGraph.getLabelIndex(toNodeLabel);
+        if (from < 0 || to < 0) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        int numRows = theGraph.rowCount();
+        workspace.begin(numRows);
+        int[] queue = workspace.queue;
+        int[] parent = workspace.parent;
+        int head = 0;
+        int tail = 0;
+        workspace.visit(from);
+        parent[from] = -1;
+        queue[tail++] = from;
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == to) {
+                //walk the parents back from the toNode, adding each one before its child
+                LinkedList<String> route = new LinkedList<>();
+                for (int row = current; row != -1; row = parent[row]) {
+                    route.addFirst(theGraph.getIndexLabel(row));
+                }
+                return route;
+            }
+            for (int column = 0; column < numRows; column++) {
+                if (theGraph.hasEdge(current, column) && workspace.visit(column)) {
+                    parent[column] = current;
+                    queue[tail++] = column;
+                }
+            }
+        }
+        throw new NoRouteException(fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path from fromNodeLabel to toNodeLabel in a
+     * CompressedGraph, using breadth-first-search over node ids that decodes successor lists with one cursor, and
+     * the given workspace for the queue, parent array and visited marks.
+     *
+     * @param theGraph      the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param workspace     scratch space for the search, not in use by any other traversal
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists, or if either label is not in theGraph
+     */
+    public static LinkedList<String> getRoute(CompressedGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              TraversalWorkspace workspace) throws NoRouteException {
+        int from = theGraph.indexOf(fromNodeLabel);
+        int to = theGraph.indexOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        workspace.begin(theGraph.size());
+        int[] queue = workspace.queue;
+        int[] parent = workspace.parent;
+        int head = 0;
+        int tail = 0;
+        workspace.visit(from);
+        parent[from] = -1;
+        queue[tail++] = from;
+        CompressedGraph.NeighborCursor cursor = theGraph.cursor();
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == to) {
+                //walk the parents back from the toNode, adding each one before its child
+                LinkedList<String> route = new LinkedList<>();
+                for (int id = current; id != -1; id = parent[id]) {
+                    route.addFirst(theGraph.label(id));
+                }
+                return route;
+            }
+            cursor.reset(current);
+            while (cursor.hasNext()) {
+                int next = cursor.next();
+                if (workspace.visit(next)) {
+                    parent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        throw new NoRouteException(fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Helper method for the IndexedGraph and SubgraphView versions of getRoute
+     */
+    private static LinkedList<String> routeIndexed(IndexedGraph theGraph, SubgraphView view, String fromNodeLabel,
+                                                   String toNodeLabel, TraversalWorkspace workspace)
+            throws NoRouteException {
+        int from = theGraph.indexOf(fromNodeLabel);
+        int to = theGraph.indexOf(toNodeLabel);
+        if (from < 0 || to < 0 || !searchIndexed(theGraph, view, from, to, workspace)) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        //walk the parents back from the toNode, adding each one before its child
+        LinkedList<String> route = new LinkedList<>();
+        for (int id = to; id != -1; id = workspace.parent[id]) {
+            route.addFirst(theGraph.label(id));
+        }
+        return route;
+    }
+
+    /**
+     * Helper method for the IndexedGraph searches: breadth-first-search from one id until another is reached,
+     * leaving each reached node's parent in the workspace. If view is not null, nodes outside it are skipped.
+     * @return true if to was reached
+     */
+    private static boolean searchIndexed(IndexedGraph theGraph, SubgraphView view, int from, int to,
+                                         TraversalWorkspace workspace) {
+        workspace.begin(theGraph.size());
+        int[] queue = workspace.queue;
+        int[] parent = workspace.parent;
+        int[] targets = theGraph.targets();
+        int head = 0;
+        int tail = 0;
+        workspace.visit(from);
+        parent[from] = -1;
+        queue[tail++] = from;
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == to) {
+                return true;
+            }
+            for (int e = theGraph.firstEdge(current); e < theGraph.endEdge(current); e++) {
+                if ((view == null || view.containsId(targets[e])) && workspace.visit(targets[e])) {
+                    parent[targets[e]] = current;
+                    queue[tail++] = targets[e];
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Helper method for getRoute that returns a map of the parents of the nodes from the fromNode to the toNode. It
      * uses BFS to find the shortest path to the toNode while storing the path to the toNode by tracking all the
-     * parents. It uses a visited list to ensure that every node is visited once.
+     * parents. A node is only queued the first time it gets a parent, so every node is visited once. Graphs with
+     * int ids are searched with a TraversalWorkspace instead; this is the fallback for any other IGraph.
      * @param theGraph Graph that contains fromNode and toNode to traverse
      * @param fromNode the starting node to get route from
      * @param toNode the destination node to get route to
@@ -93,25 +403,19 @@ public class GraphUtils {
     private static HashMap<String, String> trackParents(IGraph theGraph, String fromNode, String toNode) throws NoRouteException {
         HashMap<String, String> parentMap = new HashMap<>(); //new map to track the parents of the nodes along the route
 
-        // to keep track of nodes that need to be checked and ones that have already been checked
-        Stack<String> queue = new Stack<>();
-        HashSet<String> visited = new HashSet<>();
-        queue.push(fromNode); //add the start node to the queue
+        // nodes that still need to be checked, in the order they were reached
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        queue.add(fromNode); //add the start node to the queue
         String currentNode;
         while (!queue.isEmpty()) {
-            currentNode = queue.pop();
-            visited.add(currentNode);
+            currentNode = queue.poll();
             if (currentNode.equals(toNode)) { //if the toNode is found, stop looping and return the map
                 return parentMap;
-            } else {
-                for (String neighbor : theGraph.getNeighbors(currentNode)) {
-                    if (!visited.contains(neighbor)) {
-                        if (!parentMap.containsKey(neighbor)) {
-                            parentMap.put(neighbor, currentNode); //for every neighbor of the current node, add
-                            //them to the parent Map.
-                            queue.push(neighbor);
-                        }
-                    }
+            }
+            for (String neighbor : theGraph.getNeighbors(currentNode)) {
+                if (!neighbor.equals(fromNode) && !parentMap.containsKey(neighbor)) {
+                    parentMap.put(neighbor, currentNode); //the first parent to reach a node is on a shortest path
+                    queue.add(neighbor);
                 }
             }
         }
@@ -4,10 +4,13 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import sol.AdaptiveGraph;
+import sol.CompressedGraph;
 import sol.EdgeArrayGraph;
 import sol.GraphUtils;
 import sol.IGraph;
 import sol.NodeEdgeGraph;
+import sol.TraversalWorkspace;
 import src.NoRouteException;
 import src.NodeNameExistsException;
 
@@ -142,6 +145,32 @@ public class GraphUtilsTest {
     }
 
 
+    @Test
+    public void testGetRouteShortestOnEveryGraph() throws NodeNameExistsException {
+        // a long way round and a direct edge to the same node: every graph type must return the direct one
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("an array graph"),
+                new AdaptiveGraph("an adaptive graph")};
+        for (IGraph graph : graphs) {
+            graph.addDirectedEdge("node 1", "node 2");
+            graph.addDirectedEdge("node 2", "node 3");
+            graph.addDirectedEdge("node 3", "node 4");
+            graph.addDirectedEdge("node 4", "node 5");
+            graph.addDirectedEdge("node 1", "node 5");
+            graph.addNode("node 6");
+            IGraph[] views = {graph, CompressedGraph.of("compressed", graph)};
+            for (IGraph view : views) {
+                try {
+                    assertEquals("[node 1, node 5]", GraphUtils.getRoute(view, "node 1", "node 5").toString());
+                    assertEquals("[node 2, node 3, node 4, node 5]",
+                            GraphUtils.getRoute(view, "node 2", "node 5").toString());
+                } catch (NoRouteException e) {
+                    fail("unexpected fail getRoute");
+                }
+                assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(view, "node 5", "node 1"));
+                assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(view, "node 1", "node 6"));
+            }
+        }
+    }
     @Test
     public void testCountSelfEdgesSimple() {
         try {
@@ -190,4 +219,25 @@ public class GraphUtilsTest {
         basicGraph1.addDirectedEdge("node 3", "node 4");
         Assert.assertFalse(basicGraph1.reachesAllOthers("node 3"));
     }
+
+    @Test
+    public void testSharedWorkspace(){
+        // one workspace reused across searches and graphs of different sizes must not leak visited marks
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        NodeEdgeGraph bigGraph = new NodeEdgeGraph("big graph");
+        for (int i = 0; i < 100; i++) {
+            bigGraph.addDirectedEdge("node " + i, "node " + (i + 1));
+        }
+        NodeEdgeGraph complex = (NodeEdgeGraph) this.complexGraph;
+        for (int round = 0; round < 3; round++) {
+            Assert.assertTrue(GraphUtils.hasRoute(complex, "node 6", "node 4", workspace));
+            Assert.assertFalse(GraphUtils.hasRoute(complex, "node 4", "node 6", workspace));
+            Assert.assertTrue(GraphUtils.hasRoute(bigGraph, "node 0", "node 100", workspace));
+            try {
+                Assert.assertEquals(101, GraphUtils.getRoute(bigGraph, "node 0", "node 100", workspace).size());
+            } catch (NoRouteException e) {
+                fail("unexpected fail getRoute");
+            }
+        }
+    }
 }
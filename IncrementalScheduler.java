@@ -0,0 +1,283 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Keeps a two-teacher lab schedule up to date while lab conflicts are added and removed, instead of running
+ * Scheduler.findSchedule over the whole graph after every change. Conflicts are symmetric: a directed edge in either
+ * direction means the two labs need different teachers, as in Scheduler.checkValidity.
+ *
+ * After each edit only the connected component(s) containing the edited labs are two-colored again, with a
+ * breadth-first-search over node ids. Since a connected bipartite component has exactly two valid colorings, the
+ * new coloring is compared with the current assignment and inverted if that moves fewer labs, so each edit moves as
+ * few labs as possible. Edits that cannot change the schedule (a conflict between labs that already have different
+ * teachers, or removing a conflict from a schedulable component) return without a search.
+ *
+ * A conflict that closes an odd cycle is still recorded, but its component then has no valid schedule. Its labs
+ * keep their last assignment, getSchedule throws until a later edit breaks the cycle, and that edit recolors the
+ * component against the assignment it had before it broke.
+ */
+public class IncrementalScheduler {
+    private final LabelDictionary labels;
+    private int[][] conflicts;       // ids of the labs that conflict with each lab, in conflicts[id][0 .. degree[id])
+    private int[] degree;
+    private int[] teacher;           // 0 or 1 for each lab
+    private boolean[] unschedulable; // true for every lab in a component with an odd cycle
+    private int numUnschedulable;
+    private final TraversalWorkspace workspace;
+
+    /**
+     * Constructor for IncrementalScheduler. Starts with no labs.
+     */
+    public IncrementalScheduler() {
+        this.labels = new LabelDictionary();
+        this.conflicts = new int[16][];
+        this.degree = new int[16];
+        this.teacher = new int[16];
+        this.unschedulable = new boolean[16];
+        this.workspace = new TraversalWorkspace();
+    }
+
+    /**
+     * Constructor for IncrementalScheduler that starts from every lab and conflict of a graph. Whether the graph can
+     * be scheduled is reported by isSchedulable rather than by an exception.
+     * @param theGraph graph of labs and conflicts
+     */
+    public IncrementalScheduler(IGraph theGraph) {
+        this();
+        for (String lab : theGraph.getAllNodes()) {
+            this.idOf(lab);
+        }
+        for (String lab : theGraph.getAllNodes()) {
+            for (String neighbor : theGraph.getNeighbors(lab)) {
+                this.link(this.idOf(lab), this.idOf(neighbor));
+            }
+        }
+        this.workspace.begin(this.labels.size());
+        for (int id = 0; id < this.labels.size(); id++) {
+            if (!this.workspace.isVisited(id)) {
+                this.recolor(id, new HashSet<>());
+            }
+        }
+    }
+
+    /**
+     * Method to add a lab with no conflicts. It is given teacher 0. Adding a lab that is already scheduled does
+     * nothing.
+     * @param lab label of the lab
+     */
+    public void addLab(String lab) {
+        this.idOf(lab);
+    }
+
+    /**
+     * Method to record that two labs need different teachers, adding either lab if it is new, and update the
+     * schedule
+     * @param lab1 one lab
+     * @param lab2 the other lab (the same as lab1 makes the schedule impossible)
+     * @return labels of the labs that moved to the other teacher
+     */
+    public HashSet<String> addConflict(String lab1, String lab2) {
+        int id1 = this.idOf(lab1);
+        int id2 = this.idOf(lab2);
+        HashSet<String> moved = new HashSet<>();
+        if (!this.link(id1, id2)) {
+            return moved; // already in conflict
+        }
+        if (this.teacher[id1] != this.teacher[id2] && !this.unschedulable[id1] && !this.unschedulable[id2]) {
+            return moved; // the current schedule already keeps them apart
+        }
+        this.workspace.begin(this.labels.size());
+        this.recolor(id1, moved); // id2 is in the same component now
+        return moved;
+    }
+
+    /**
+     * Method to remove the conflict between two labs, if there is one, and update the schedule
+     * @param lab1 one lab
+     * @param lab2 the other lab
+     * @return labels of the labs that moved to the other teacher
+     */
+    public HashSet<String> removeConflict(String lab1, String lab2) {
+        HashSet<String> moved = new HashSet<>();
+        int id1 = this.labels.indexOf(lab1);
+        int id2 = this.labels.indexOf(lab2);
+        if (id1 < 0 || id2 < 0 || !this.unlink(id1, id2)) {
+            return moved;
+        }
+        if (!this.unschedulable[id1]) {
+            return moved; // dropping a constraint keeps a valid schedule valid
+        }
+        // the component may have split in two, and either part may have lost its odd cycle
+        this.workspace.begin(this.labels.size());
+        this.recolor(id1, moved);
+        if (!this.workspace.isVisited(id2)) {
+            this.recolor(id2, moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Method to check whether every component of the conflict graph can currently be scheduled
+     * @return true if getSchedule will succeed
+     */
+    public boolean isSchedulable() {
+        return this.numUnschedulable == 0;
+    }
+
+    /**
+     * Method to get the teacher a lab is assigned to
+     * @param lab label of the lab
+     * @return 0 or 1, or -1 if the lab is not known
+     */
+    public int getTeacher(String lab) {
+        int id = this.labels.indexOf(lab);
+        return id < 0 ? -1 : this.teacher[id];
+    }
+
+    /**
+     * Method to get the current schedule, in the same form as Scheduler.findSchedule
+     * @return an ArrayList of two HashSets of lab labels, one per teacher
+     * @throws NoScheduleException if some component has an odd cycle of conflicts
+     */
+    public ArrayList<HashSet<String>> getSchedule() throws NoScheduleException {
+        if (!this.isSchedulable()) {
+            throw new NoScheduleException();
+        }
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        schedule.add(new HashSet<>()); //for teacher 0
+        schedule.add(new HashSet<>()); // for teacher 1
+        for (int id = 0; id < this.labels.size(); id++) {
+            schedule.get(this.teacher[id]).add(this.labels.label(id));
+        }
+        return schedule;
+    }
+
+    /**
+     * Helper method that two-colors the component of start (which must not be visited yet in the workspace's
+     * current traversal), then applies whichever of the two colorings moves fewer labs. If the component has an odd
+     * cycle, its labs are marked unschedulable and keep their teachers.
+     */
+    private void recolor(int start, HashSet<String> moved) {
+        int[] queue = this.workspace.queue;
+        int[] side = this.workspace.side;
+        this.workspace.visit(start);
+        side[start] = this.teacher[start];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        boolean odd = false;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int k = 0; k < this.degree[current]; k++) {
+                int neighbor = this.conflicts[current][k];
+                if (this.workspace.visit(neighbor)) {
+                    side[neighbor] = 1 - side[current];
+                    queue[tail++] = neighbor;
+                } else if (side[neighbor] == side[current]) {
+                    odd = true; // keep going so that every lab of the component gets marked
+                }
+            }
+        }
+
+        int changed = 0;
+        for (int i = 0; i < tail; i++) {
+            int id = queue[i];
+            if (this.unschedulable[id] != odd) {
+                this.unschedulable[id] = odd;
+                this.numUnschedulable += odd ? 1 : -1;
+            }
+            if (side[id] != this.teacher[id]) {
+                changed++;
+            }
+        }
+        if (odd) {
+            return;
+        }
+        boolean invert = changed > tail - changed; // the other coloring moves tail - changed labs
+        for (int i = 0; i < tail; i++) {
+            int id = queue[i];
+            int newTeacher = invert ? 1 - side[id] : side[id];
+            if (newTeacher != this.teacher[id]) {
+                this.teacher[id] = newTeacher;
+                moved.add(this.labels.label(id));
+            }
+        }
+    }
+
+    /**
+     * Helper method to get the id of a lab, adding it with teacher 0 and no conflicts if it is new
+     */
+    private int idOf(String lab) {
+        int id = this.labels.intern(lab);
+        if (id == this.degree.length) {
+            int capacity = 2 * id;
+            this.conflicts = Arrays.copyOf(this.conflicts, capacity);
+            this.degree = Arrays.copyOf(this.degree, capacity);
+            this.teacher = Arrays.copyOf(this.teacher, capacity);
+            this.unschedulable = Arrays.copyOf(this.unschedulable, capacity);
+        }
+        if (this.conflicts[id] == null) {
+            this.conflicts[id] = new int[4];
+        }
+        return id;
+    }
+
+    /**
+     * Helper method to record a conflict in both labs' lists
+     * @return false if the conflict was already recorded
+     */
+    private boolean link(int id1, int id2) {
+        if (this.indexOfConflict(id1, id2) >= 0) {
+            return false;
+        }
+        this.append(id1, id2);
+        if (id1 != id2) {
+            this.append(id2, id1);
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to remove a conflict from both labs' lists
+     * @return false if there was no such conflict
+     */
+    private boolean unlink(int id1, int id2) {
+        int k = this.indexOfConflict(id1, id2);
+        if (k < 0) {
+            return false;
+        }
+        this.conflicts[id1][k] = this.conflicts[id1][--this.degree[id1]];
+        if (id1 != id2) {
+            k = this.indexOfConflict(id2, id1);
+            this.conflicts[id2][k] = this.conflicts[id2][--this.degree[id2]];
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to find where other sits in the conflict list of id, or -1 if it is not there
+     */
+    private int indexOfConflict(int id, int other) {
+        for (int k = 0; k < this.degree[id]; k++) {
+            if (this.conflicts[id][k] == other) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to append to a lab's conflict list, growing it if needed
+     */
+    private void append(int id, int other) {
+        if (this.degree[id] == this.conflicts[id].length) {
+            this.conflicts[id] = Arrays.copyOf(this.conflicts[id], 2 * this.degree[id]);
+        }
+        this.conflicts[id][this.degree[id]++] = other;
+    }
+}
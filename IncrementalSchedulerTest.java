@@ -0,0 +1,85 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.GraphGenerator;
+import sol.IncrementalScheduler;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoScheduleException;
+
+import java.util.HashSet;
+import java.util.Random;
+
+public class IncrementalSchedulerTest {
+    @Test
+    public void testMergeFlipsSmallerComponent() throws NoScheduleException {
+        IncrementalScheduler scheduler = new IncrementalScheduler();
+        // a chain of four labs and a pair, both starting with their first lab on teacher 0
+        scheduler.addConflict("lab 1", "lab 2");
+        scheduler.addConflict("lab 2", "lab 3");
+        scheduler.addConflict("lab 3", "lab 4");
+        scheduler.addConflict("lab 5", "lab 6");
+        Assert.assertEquals(scheduler.getTeacher("lab 1"), scheduler.getTeacher("lab 5"));
+
+        HashSet<String> moved = scheduler.addConflict("lab 1", "lab 5");
+        Assert.assertEquals(2, moved.size());
+        Assert.assertTrue(moved.contains("lab 5") && moved.contains("lab 6"));
+        Assert.assertNotEquals(scheduler.getTeacher("lab 1"), scheduler.getTeacher("lab 5"));
+
+        // a conflict the schedule already satisfies moves nothing
+        Assert.assertTrue(scheduler.addConflict("lab 1", "lab 4").isEmpty());
+        Assert.assertTrue(scheduler.removeConflict("lab 2", "lab 3").isEmpty());
+    }
+
+    @Test
+    public void testOddCycleAndRecovery() throws NoScheduleException {
+        IncrementalScheduler scheduler = new IncrementalScheduler();
+        scheduler.addConflict("lab 1", "lab 2");
+        scheduler.addConflict("lab 2", "lab 3");
+        scheduler.addLab("lab 4");
+        Assert.assertTrue(scheduler.isSchedulable());
+        Assert.assertTrue(scheduler.addConflict("lab 3", "lab 1").isEmpty());
+        Assert.assertFalse(scheduler.isSchedulable());
+        Assert.assertThrows(NoScheduleException.class, scheduler::getSchedule);
+
+        scheduler.removeConflict("lab 2", "lab 3");
+        Assert.assertTrue(scheduler.isSchedulable());
+        Assert.assertEquals(4, scheduler.getSchedule().get(0).size() + scheduler.getSchedule().get(1).size());
+
+        scheduler.addConflict("lab 4", "lab 4");
+        Assert.assertFalse(scheduler.isSchedulable());
+        scheduler.removeConflict("lab 4", "lab 4");
+        Assert.assertTrue(scheduler.isSchedulable());
+    }
+
+    @Test
+    public void testMatchesFindSchedule() throws NoScheduleException {
+        NodeEdgeGraph graph = new NodeEdgeGraph("bipartite");
+        new GraphGenerator(37).bipartite(200, 200, 500, GraphGenerator.into(graph, true));
+        IncrementalScheduler scheduler = new IncrementalScheduler(graph);
+        Assert.assertTrue(scheduler.isSchedulable());
+        Assert.assertTrue(Scheduler.checkValidity(graph, scheduler.getSchedule()));
+
+        // random conflicts keep the schedule valid for as long as the graph can be scheduled at all
+        Random random = new Random(37);
+        for (int i = 0; i < 100; i++) {
+            String lab1 = "node " + random.nextInt(400);
+            String lab2 = "node " + random.nextInt(400);
+            graph.addUndirectedEdge(lab1, lab2);
+            scheduler.addConflict(lab1, lab2);
+            boolean schedulable = true;
+            try {
+                Scheduler.findSchedule(graph);
+            } catch (NoScheduleException e) {
+                schedulable = false;
+            }
+            Assert.assertEquals(schedulable, scheduler.isSchedulable());
+            if (!schedulable) {
+                break;
+            }
+            Assert.assertTrue(Scheduler.checkValidity(graph, scheduler.getSchedule()));
+        }
+    }
+}
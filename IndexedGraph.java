@@ -0,0 +1,345 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Read-only graph with every node label mapped to a dense int index and the edges stored in compressed sparse row
+ * form (one offsets array and one targets array). Algorithms that need to touch every edge many times can work on
+ * plain int arrays instead of going through getNeighbors and String labels on each step, and since it is an IGraph
+ * it can also be handed to GraphUtils and Scheduler directly. Successor lists never contain duplicates.
+ *
+ * Node ids are the ids of a LabelDictionary, so the labels cost a few bytes each instead of a String and a map entry.
+ * The reverse graph shares the dictionary, and it can also be handed to an EdgeArrayGraph through labels(). A graph
+ * made by SubgraphView.compact shares its parent's dictionary instead of copying the labels; its dense node ids are
+ * then mapped to dictionary ids through an int array, and back through an open-addressing table sized to the graph.
+ */
+public class IndexedGraph implements IGraph {
+    private final LabelDictionary labels;
+    private final int size;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] labelIds;  // node id -> dictionary id, or null if every node id is its own dictionary id
+    private final int[] slotLabel; // open-addressing table keyed by dictionary id + 1 (0 for a free slot), or null
+    private final int[] slotNode;  // node id of the dictionary id in the same slot of slotLabel
+
+    /**
+     * Constructor for IndexedGraph. Node i is the label with id i in the dictionary, for every i below
+     * offsets.length - 1, and its successors are the entries of targets from offsets[i] (inclusive) to
+     * offsets[i + 1] (exclusive). Labels interned into the dictionary later are not nodes of this graph.
+     * @param labels  dictionary holding at least offsets.length - 1 labels
+     * @param offsets start of each node's successor range in targets
+     * @param targets successor ids of every node, concatenated
+     */
+    IndexedGraph(LabelDictionary labels, int[] offsets, int[] targets) {
+        this(labels, null, null, null, offsets, targets);
+    }
+
+    /**
+     * Constructor for IndexedGraph whose node ids are not its dictionary ids. Node i is the label with id
+     * labelIds[i] in the dictionary, which may hold many labels that are not nodes of this graph.
+     * @param labels   dictionary holding every label in labelIds
+     * @param labelIds dictionary id of each node, all different
+     * @param offsets  start of each node's successor range in targets, with labelIds.length + 1 entries
+     * @param targets  successor ids of every node, concatenated
+     */
+    IndexedGraph(LabelDictionary labels, int[] labelIds, int[] offsets, int[] targets) {
+        this(labels, labelIds, new int[tableSize(labelIds.length)], new int[tableSize(labelIds.length)], offsets,
+                targets);
+        for (int v = 0; v < this.size; v++) {
+            int slot = this.slotOf(labelIds[v]);
+            this.slotLabel[slot] = labelIds[v] + 1;
+            this.slotNode[slot] = v;
+        }
+    }
+
+    /**
+     * Constructor that every other constructor and reverse() goes through
+     */
+    private IndexedGraph(LabelDictionary labels, int[] labelIds, int[] slotLabel, int[] slotNode, int[] offsets,
+                         int[] targets) {
+        this.labels = labels;
+        this.size = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labelIds = labelIds;
+        this.slotLabel = slotLabel;
+        this.slotNode = slotNode;
+    }
+
+    /**
+     * Helper method to size the id table: a power of two at least twice the number of nodes, so probes stay short
+     */
+    private static int tableSize(int numNodes) {
+        return Integer.highestOneBit(Math.max(1, numNodes) * 2 - 1) << 1;
+    }
+
+    /**
+     * Helper method to find the slot of a dictionary id in the id table: the slot holding it, or the free slot
+     * where it would go
+     */
+    private int slotOf(int labelId) {
+        int mask = this.slotLabel.length - 1;
+        int hash = labelId * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (this.slotLabel[slot] != 0 && this.slotLabel[slot] != labelId + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Method to take a snapshot of a graph. Node ids follow the order of theGraph.getAllNodes().
+     * @param theGraph graph to snapshot
+     * @return IndexedGraph with the same nodes and edges as theGraph
+     */
+    public static IndexedGraph of(IGraph theGraph) {
+        LinkedList<String> allNodes = theGraph.getAllNodes();
+        int n = allNodes.size();
+        LabelDictionary labels = new LabelDictionary();
+        for (String label : allNodes) {
+            labels.intern(label);
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[Math.max(16, n)];
+        int size = 0;
+        int i = 0;
+        for (String label : allNodes) {
+            offsets[i++] = size;
+            for (String neighbor : theGraph.getNeighbors(label)) {
+                if (size == targets.length) {
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                }
+                targets[size++] = labels.indexOf(neighbor);
+            }
+        }
+        offsets[n] = size;
+        return new IndexedGraph(labels, offsets, Arrays.copyOf(targets, size));
+    }
+
+    /**
+     * Method to build the reverse of this graph, in which every edge u -> v becomes v -> u. Node ids are unchanged.
+     * @return IndexedGraph with all edges reversed
+     */
+    public IndexedGraph reverse() {
+        int n = this.size;
+        int[] revOffsets = new int[n + 1];
+        for (int target : this.targets) {
+            revOffsets[target + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            revOffsets[i + 1] += revOffsets[i];
+        }
+        int[] fill = Arrays.copyOf(revOffsets, n);
+        int[] revTargets = new int[this.targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int e = this.offsets[u]; e < this.offsets[u + 1]; e++) {
+                revTargets[fill[this.targets[e]]++] = u;
+            }
+        }
+        return new IndexedGraph(this.labels, this.labelIds, this.slotLabel, this.slotNode, revOffsets, revTargets);
+    }
+
+    /**
+     * Method to get the number of nodes in the snapshot
+     * @return number of nodes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to get the number of directed edges in the snapshot
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    /**
+     * Method to get the id of a node label
+     * @param label label of the node
+     * @return id of the node, or -1 if the label is not in the graph
+     */
+    public int indexOf(String label) {
+        int index = this.labels.indexOf(label);
+        return index < 0 ? -1 : this.indexOfLabelId(index);
+    }
+
+    /**
+     * Method to get the label of a node id
+     * @param index id of the node
+     * @return label of the node
+     */
+    public String label(int index) {
+        return this.labels.label(this.labelId(index));
+    }
+
+    /**
+     * Method to get the node id of a dictionary id
+     * @param labelId id of a label in labels()
+     * @return id of the node with that label, or -1 if the label is not a node of this graph
+     */
+    int indexOfLabelId(int labelId) {
+        if (this.labelIds == null) {
+            return labelId < this.size ? labelId : -1;
+        }
+        int slot = this.slotOf(labelId);
+        return this.slotLabel[slot] == 0 ? -1 : this.slotNode[slot];
+    }
+
+    /**
+     * Method to get the dictionary id of a node's label
+     * @param index id of the node
+     * @return id of the node's label in labels()
+     */
+    int labelId(int index) {
+        return this.labelIds == null ? index : this.labelIds[index];
+    }
+
+    /**
+     * Method to get the dictionary that holds this graph's labels, for sharing with other graphs. Its ids are the
+     * node ids of this graph unless the graph was made by SubgraphView.compact; use indexOf and label to translate.
+     * @return LabelDictionary holding the label of every node of this graph
+     */
+    public LabelDictionary labels() {
+        return this.labels;
+    }
+
+    /**
+     * Method to get a graph with the same nodes and ids as this one but no edges, for keeping the labels of a
+     * graph whose edges are held elsewhere
+     * @return IndexedGraph sharing this graph's labels and id mapping, with no edges
+     */
+    IndexedGraph withoutEdges() {
+        return new IndexedGraph(this.labels, this.labelIds, this.slotLabel, this.slotNode, new int[this.size + 1],
+                new int[0]);
+    }
+
+    /**
+     * Method to get the first position in targets() holding a successor of the given node
+     * @param index id of the node
+     * @return start of the node's successor range
+     */
+    public int firstEdge(int index) {
+        return this.offsets[index];
+    }
+
+    /**
+     * Method to get the position in targets() just past the last successor of the given node
+     * @param index id of the node
+     * @return end (exclusive) of the node's successor range
+     */
+    public int endEdge(int index) {
+        return this.offsets[index + 1];
+    }
+
+    /**
+     * Method to get the shared successor array. Callers must not modify it.
+     * @return successor ids of every node, concatenated
+     */
+    public int[] targets() {
+        return this.targets;
+    }
+
+    /**
+     * IndexedGraph is read-only; build a new one instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addNode(String descr) {
+        throw new UnsupportedOperationException("IndexedGraph is read-only");
+    }
+
+    /**
+     * IndexedGraph is read-only; build a new one instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("IndexedGraph is read-only");
+    }
+
+    /**
+     * IndexedGraph is read-only; build a new one instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("IndexedGraph is read-only");
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        //This method has O(N + E) runtime
+        int count = 0;
+        for (int v = 0; v < this.size; v++) {
+            for (int e = this.offsets[v]; e < this.offsets[v + 1]; e++) {
+                if (this.targets[e] == v) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int v = this.indexOf(fromNodeLabel);
+        if (v < 0) {
+            return false;
+        }
+        int others = 0;
+        for (int e = this.offsets[v]; e < this.offsets[v + 1]; e++) {
+            if (this.targets[e] != v) {
+                others++;
+            }
+        }
+        return others == this.size - 1;
+    }
+
+    /**
+     * Method to get all the immediate neighbors of a node. A neighbor is a node connected to the rootNode via a directed
+     * or undirected edge.
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root.
+     */
+    @Override
+    public HashSet<String> getNeighbors(String rootNode) {
+        HashSet<String> neighbors = new HashSet<>();
+        int v = this.indexOf(rootNode);
+        if (v >= 0) {
+            for (int e = this.offsets[v]; e < this.offsets[v + 1]; e++) {
+                neighbors.add(this.label(this.targets[e]));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Method to return all the nodes in a graph
+     * @return LinkedList<String> that contains all the Nodes, in id order
+     */
+    @Override
+    public LinkedList<String> getAllNodes() {
+        LinkedList<String> allNodes = new LinkedList<>();
+        for (int v = 0; v < this.size; v++) {
+            allNodes.add(this.label(v));
+        }
+        return allNodes;
+    }
+}
@@ -0,0 +1,248 @@
+package sol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary that gives every node label a dense int id, starting at 0 in the order the labels are first interned.
+ * Instead of one String object per label, all labels are packed one after another as UTF-8 into a single byte
+ * array, with an int array of start offsets. Looking a label up goes through an open-addressing hash table of ids
+ * (linear probing, kept at most half full) and compares the String against the stored bytes directly, so lookups
+ * do not allocate. Getting the label of an id is O(1). Decoded labels go into a small direct-mapped cache of
+ * CACHE_SIZE slots (slot id mod CACHE_SIZE), so repeated calls for the same hot nodes, or for every node of a small
+ * graph, return the same String instead of decoding again, while the number of Strings kept stays fixed however many
+ * labels are asked for.
+ *
+ * Labels are never removed, so ids stay valid for the life of the dictionary and one dictionary can be shared by
+ * several graphs over the same labels. Interning is not thread-safe; lookups are safe from any number of threads
+ * once no more labels are being added.
+ */
+public class LabelDictionary {
+    private static final int CACHE_SIZE = 1024;
+
+    private byte[] bytes;
+    private int byteCount;
+    private int[] starts; // label i is bytes[starts[i]] up to (not including) bytes[starts[i + 1]]
+    private int[] hashes; // String.hashCode() of each label, so growing the table never decodes
+    private final String[] cache; // recently decoded labels, in slot id & (CACHE_SIZE - 1); checked before use
+    private int[] table;  // id + 1 of the label in each slot, or 0 if the slot is empty
+    private int size;
+
+    /**
+     * Constructor for LabelDictionary. Creates an empty dictionary.
+     */
+    public LabelDictionary() {
+        this.bytes = new byte[256];
+        this.starts = new int[17];
+        this.hashes = new int[16];
+        this.cache = new String[CACHE_SIZE];
+        this.table = new int[32];
+    }
+
+    /**
+     * Method to get the id of a label, adding the label with the next free id if it is not there yet
+     * @param label label to look up
+     * @return id of the label
+     * @throws IllegalArgumentException if the label contains an unpaired surrogate, which has no UTF-8 form
+     */
+    public int intern(String label) {
+        int hash = label.hashCode();
+        int mask = this.table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = this.table[slot];
+            if (entry == 0) {
+                break;
+            }
+            if (this.hashes[entry - 1] == hash && this.matches(entry - 1, label)) {
+                return entry - 1;
+            }
+        }
+
+        byte[] encoded = label.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length != utf8Length(label)) {
+            throw new IllegalArgumentException("label is not valid UTF-16: " + label);
+        }
+        if (this.byteCount + encoded.length > this.bytes.length) {
+            long grown = Math.max(2L * this.bytes.length, (long) this.byteCount + encoded.length);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("label dictionary is full");
+            }
+            this.bytes = Arrays.copyOf(this.bytes, (int) grown);
+        }
+        if (this.size == this.hashes.length) {
+            this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+            this.starts = Arrays.copyOf(this.starts, this.size * 2 + 1);
+        }
+        System.arraycopy(encoded, 0, this.bytes, this.byteCount, encoded.length);
+        int id = this.size++;
+        this.byteCount += encoded.length;
+        this.starts[id + 1] = this.byteCount;
+        this.hashes[id] = hash;
+        if (2 * this.size > this.table.length) {
+            this.rehash(this.table.length * 2);
+        } else {
+            this.insert(id);
+        }
+        return id;
+    }
+
+    /**
+     * Method to get the id of a label without adding it
+     * @param label label to look up
+     * @return id of the label, or -1 if the label is not in the dictionary
+     */
+    public int indexOf(String label) {
+        int hash = label.hashCode();
+        int mask = this.table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = this.table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (this.hashes[entry - 1] == hash && this.matches(entry - 1, label)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Method to get the label of an id, from the cache if its slot still holds it
+     * @param id id of the label
+     * @return the label
+     * @throws IndexOutOfBoundsException if no label has that id
+     */
+    public String label(int id) {
+        if (id < 0 || id >= this.size) {
+            throw new IndexOutOfBoundsException("no label with id " + id);
+        }
+        int slot = id & (CACHE_SIZE - 1);
+        String label = this.cache[slot];
+        // the slot may hold another id's label, or be overwritten by another thread at any time, so the String is
+        // checked against the stored bytes; Strings are immutable, so whatever is read is a whole label
+        if (label != null && label.hashCode() == this.hashes[id] && this.matches(id, label)) {
+            return label;
+        }
+        label = new String(this.bytes, this.starts[id], this.starts[id + 1] - this.starts[id], StandardCharsets.UTF_8);
+        this.cache[slot] = label;
+        return label;
+    }
+
+    /**
+     * Method to get the number of labels in the dictionary
+     * @return number of labels, which is also one more than the largest id
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to estimate the heap used by the dictionary, counting the spare capacity of its arrays and the Strings
+     * held by the label cache (about 40 bytes of object headers each, plus one byte per char for Latin-1 labels and
+     * two for others)
+     * @return approximate size in bytes
+     */
+    public long memoryBytes() {
+        long cached = 0;
+        for (String label : this.cache) {
+            if (label != null) {
+                boolean latin1 = label.chars().allMatch(c -> c < 0x100);
+                cached += 40 + (latin1 ? 1L : 2L) * label.length();
+            }
+        }
+        return this.bytes.length + cached
+                + 4L * (this.starts.length + this.hashes.length + this.cache.length + this.table.length);
+    }
+
+    /**
+     * Helper method to check whether the stored bytes of an id are the UTF-8 encoding of a String, encoding the
+     * String one char at a time instead of allocating its byte array
+     */
+    private boolean matches(int id, String label) {
+        int pos = this.starts[id];
+        int end = this.starts[id + 1];
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c < 0x80) {
+                if (pos == end || this.bytes[pos++] != c) {
+                    return false;
+                }
+                continue;
+            }
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < label.length()
+                    && Character.isLowSurrogate(label.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, label.charAt(++i));
+            }
+            int length = codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (end - pos < length) {
+                return false;
+            }
+            // lead byte, then continuation bytes holding 6 bits each
+            int lead = length == 2 ? 0xC0 | (codePoint >> 6) : length == 3 ? 0xE0 | (codePoint >> 12)
+                    : 0xF0 | (codePoint >> 18);
+            if (this.bytes[pos++] != (byte) lead) {
+                return false;
+            }
+            for (int shift = 6 * (length - 2); shift >= 0; shift -= 6) {
+                if (this.bytes[pos++] != (byte) (0x80 | ((codePoint >> shift) & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+        return pos == end;
+    }
+
+    /**
+     * Helper method to count the UTF-8 bytes a String encodes to, with unpaired surrogates counted as 3 bytes so
+     * that they never match the single '?' byte String.getBytes writes for them
+     */
+    private static int utf8Length(String label) {
+        int length = 0;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < label.length()
+                    && Character.isLowSurrogate(label.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Helper method to put an id into the first free slot of its probe sequence
+     */
+    private void insert(int id) {
+        int mask = this.table.length - 1;
+        int slot = mix(this.hashes[id]) & mask;
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = id + 1;
+    }
+
+    /**
+     * Helper method to rebuild the hash table at a new power-of-two capacity
+     */
+    private void rehash(int capacity) {
+        this.table = new int[capacity];
+        for (int id = 0; id < this.size; id++) {
+            this.insert(id);
+        }
+    }
+
+    /**
+     * Helper method to spread the bits of String.hashCode(), whose low bits are poor for labels that differ only
+     * in their last characters
+     */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,94 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.EdgeArrayGraph;
+import sol.IndexedGraph;
+import sol.LabelDictionary;
+import sol.NodeEdgeGraph;
+import src.NodeNameExistsException;
+
+public class LabelDictionaryTest {
+    @Test
+    public void testInternAndLookup() {
+        LabelDictionary labels = new LabelDictionary();
+        Assert.assertEquals(0, labels.intern("lab A"));
+        Assert.assertEquals(1, labels.intern("lab B"));
+        Assert.assertEquals(0, labels.intern("lab A"));
+        Assert.assertEquals(2, labels.size());
+        Assert.assertEquals(1, labels.indexOf("lab B"));
+        Assert.assertEquals(-1, labels.indexOf("lab C"));
+        Assert.assertEquals("lab A", labels.label(0));
+        Assert.assertEquals("", labels.label(labels.intern("")));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> labels.label(3));
+    }
+
+    @Test
+    public void testNonAsciiLabels() {
+        LabelDictionary labels = new LabelDictionary();
+        String[] words = {"caf\u00e9", "cafe", "\u5b9e\u9a8c", "lab \ud83e\uddea", "\u00e9"};
+        for (int i = 0; i < words.length; i++) {
+            Assert.assertEquals(i, labels.intern(words[i]));
+        }
+        for (int i = 0; i < words.length; i++) {
+            Assert.assertEquals(words[i], labels.label(i));
+            Assert.assertEquals(i, labels.indexOf(words[i]));
+        }
+        Assert.assertEquals(-1, labels.indexOf("caf\u00e8"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> labels.intern("broken \ud83e"));
+    }
+
+    @Test
+    public void testManyLabels() {
+        LabelDictionary labels = new LabelDictionary();
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(i, labels.intern("node " + i));
+        }
+        long packed = labels.memoryBytes();
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(i, labels.indexOf("node " + i));
+            Assert.assertEquals("node " + i, labels.label(i));
+        }
+        Assert.assertEquals(-1, labels.indexOf("node 100000"));
+        // asking for every label keeps only a bounded number of decoded Strings, not one per label
+        Assert.assertTrue(labels.memoryBytes() - packed < 64 * 1024);
+        // a label asked for again while its cache slot still holds it is not decoded again
+        Assert.assertSame(labels.label(7), labels.label(7));
+    }
+
+    @Test
+    public void testSharedBetweenGraphs() throws NodeNameExistsException {
+        LabelDictionary labels = new LabelDictionary();
+        EdgeArrayGraph first = new EdgeArrayGraph("first", labels);
+        EdgeArrayGraph second = new EdgeArrayGraph("second", labels);
+        first.addDirectedEdge("lab 1", "lab 2");
+        first.addNode("lab 3");
+        second.addDirectedEdge("lab 3", "lab 1");
+
+        // second holds labels it never added, but they are not its nodes
+        Assert.assertEquals(3, labels.size());
+        Assert.assertEquals(2, second.getAllNodes().size());
+        Assert.assertTrue(second.getNeighbors("lab 2").isEmpty());
+        Assert.assertTrue(second.getNeighbors("lab 3").contains("lab 1"));
+        second.addNode("lab 2");
+        Assert.assertEquals(3, labels.size());
+        Assert.assertThrows(NodeNameExistsException.class, () -> second.addNode("lab 2"));
+    }
+
+    @Test
+    public void testIndexedGraphLabels() {
+        NodeEdgeGraph graph = new NodeEdgeGraph("graph");
+        graph.addDirectedEdge("a", "b");
+        graph.addDirectedEdge("b", "c");
+        IndexedGraph indexed = IndexedGraph.of(graph);
+        IndexedGraph reverse = indexed.reverse();
+        Assert.assertSame(indexed.labels(), reverse.labels());
+        Assert.assertTrue(reverse.getNeighbors("c").contains("b"));
+
+        // labels interned after the snapshot are not its nodes
+        indexed.labels().intern("d");
+        Assert.assertEquals(-1, indexed.indexOf("d"));
+        Assert.assertEquals(3, indexed.getAllNodes().size());
+    }
+}
@@ -1,7 +1,61 @@
 package sol;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
 public class Main {
-    public static void main(String[] args) {
+    // estimated bytes of route answers kept by batch mode, at most
+    private static final long BATCH_CACHE_BYTES = 256L << 20;
+    private static final String USAGE = "usage: batch GRAPH_FILE QUERY_FILE [THREADS] [undirected]";
+
+    /**
+     * Method to start the program. With the arguments
+     * batch GRAPH_FILE QUERY_FILE [THREADS] [undirected]
+     * it loads the edge file (one tab-separated edge per line, as written by GraphGenerator.FileSink), answers every
+     * query of the query file with BatchQueryRunner, writes the answers to standard output in query order and the
+     * throughput, latency and hit rate report to standard error. If THREADS is not a positive number, the usage is
+     * printed to standard error instead.
+     * @param args command line arguments
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("batch")) {
+            int threads;
+            try {
+                threads = args.length >= 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.println(USAGE);
+                return;
+            }
+            boolean undirected = args.length >= 5 && args[4].equals("undirected");
+            runBatch(Paths.get(args[1]), Paths.get(args[2]), threads, undirected);
+            return;
+        }
         NodeEdgeGraph G = new NodeEdgeGraph("sample");
     }
+
+    /**
+     * Helper method for batch mode
+     */
+    private static void runBatch(Path graphFile, Path queryFile, int threads, boolean undirected) throws IOException {
+        long start = System.nanoTime();
+        IndexedGraph graph = new ParallelIngest(threads, undirected).load(Collections.singletonList(graphFile));
+        System.err.printf("loaded %d nodes and %d edges in %.3f s%n", graph.size(), graph.edgeCount(),
+                (System.nanoTime() - start) / 1e9);
+        BatchQueryRunner runner = new BatchQueryRunner(graph, threads, BATCH_CACHE_BYTES);
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader queries = Files.newBufferedReader(queryFile, StandardCharsets.UTF_8)) {
+            System.err.println(runner.run(queries, out));
+        }
+    }
 }
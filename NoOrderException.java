@@ -0,0 +1,16 @@
+package src;
+
+import java.util.LinkedList;
+
+public class NoOrderException extends Exception {
+    private final LinkedList<String> cycle;
+
+    public NoOrderException(LinkedList<String> cycle) {
+        super("No order found: cycle " + String.join(" -> ", cycle) + " -> " + cycle.getFirst());
+        this.cycle = cycle;
+    }
+
+    public LinkedList<String> getCycle() {
+        return this.cycle;
+    }
+}
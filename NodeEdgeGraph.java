@@ -1,6 +1,7 @@
 package sol;
 
 import src.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -13,6 +14,7 @@ import java.util.LinkedList;
 public class NodeEdgeGraph implements IGraph{
     public String name;
     public HashMap<String, Node> allNodes;
+    ArrayList<Node> nodesById; // nodes in the order they were added, so that nodesById.get(node.id) == node
 
     // ---------------------------------------------
     // the Node class:
@@ -23,6 +25,7 @@ public class NodeEdgeGraph implements IGraph{
     static class Node {
         String descr;  // a descriptive name for the node
         LinkedList<Node> nextNodes; // the nodes that this node can get to
+        int id; // dense index of the node in its graph, used to index traversal arrays
 
         /**
          * Constructor for Node class that initializes instance variables: description and nextNodes
@@ -46,6 +49,7 @@ public class NodeEdgeGraph implements IGraph{
     public NodeEdgeGraph(String name) {
         this.name = name;
         this.allNodes = new HashMap<String, Node>();
+        this.nodesById = new ArrayList<>();
     }
 
     /**
@@ -81,8 +85,10 @@ public class NodeEdgeGraph implements IGraph{
      * @param descr the text description or label to associate with the node
      * @return the (new) node associated with the given description
      */
-    private Node addNodeUnchecked(String descr) {
+    Node addNodeUnchecked(String descr) {
         Node newNode = new Node(descr);
+        newNode.id = this.nodesById.size();
+        this.nodesById.add(newNode);
         this.allNodes.put(descr, newNode);
         return newNode;
     }
@@ -107,6 +113,22 @@ public class NodeEdgeGraph implements IGraph{
         }
     }
 
+    /**
+     * An internal method to add a directed edge without checking whether it already exists. Both nodes are
+     * created if needed. This is useful for bulk builders that have already removed duplicate edges, since the
+     * duplicate check in addDirectedEdge scans the whole nextNodes list.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    void addDirectedEdgeUnchecked(String descr1, String descr2) {
+        Node node1 = this.allNodes.get(descr1);
+        if (node1 == null) node1 = this.addNodeUnchecked(descr1);
+        Node node2 = this.allNodes.get(descr2);
+        if (node2 == null) node2 = this.addNodeUnchecked(descr2);
+        node1.addEdge(node2);
+    }
+
     /**
      * Method to add an undirected edge between the nodes associated with the given
      * descriptions. This is equivalent to adding two directed edges, one from
@@ -149,16 +171,21 @@ public class NodeEdgeGraph implements IGraph{
      * @return true if fromNodeLabel has an edge to every other node, otherwise false
      */
     public boolean reachesAllOthers(String fromNodeLabel) {
-        //This method has O(N*M + N) where N is the number of nodes in the graph and M is the number of nodes in nextNodes
+        //This method has O(M) runtime where M is the number of nodes in nextNodes
         Node node = this.allNodes.get(fromNodeLabel);
         if (node == null) {
             return false; // Node not found
         }
 
-        //filtering takes O(N) runtime. containsAll takes O(N*M).
-        return node.nextNodes.containsAll(this.allNodes.values().stream()
-                .filter(b -> !b.equals(node)).toList());
-
+        //addDirectedEdge never adds the same edge twice, so the node reaches all others exactly when it has an edge
+        //to N - 1 nodes other than itself
+        int others = 0;
+        for (Node nextNode : node.nextNodes) {
+            if (nextNode != node) {
+                others++;
+            }
+        }
+        return others == this.allNodes.size() - 1;
     }
 
 
@@ -0,0 +1,256 @@
+package sol;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Loads a graph split across many edge files using several threads. The files use the format written by
+ * GraphGenerator.FileSink: one edge per line as two labels separated by a tab (a line with a single label adds a
+ * node with no edges). Loading happens in three phases:
+ * 1. Each worker takes files off a shared counter, parses them and keeps the edges in its own int buffers. Labels
+ *    are interned into global int ids through one concurrent map.
+ * 2. The buffers are merged into compressed sparse row form with a parallel counting sort: out-degrees are counted
+ *    with atomic increments, prefix-summed, and every edge is then scattered into its source's slot range.
+ * 3. Each node's successors are sorted and duplicates removed, in parallel ranges of nodes.
+ * The result is an IndexedGraph, which GraphUtils and Scheduler accept like any other IGraph.
+ */
+public class ParallelIngest {
+    private final int numThreads;
+    private final boolean undirected;
+    private final ConcurrentHashMap<String, Integer> ids;
+    private final AtomicInteger nextId;
+
+    /**
+     * Thread-local store of the edges parsed by one worker, as two parallel growable int arrays
+     */
+    private static class EdgeBuffer {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int size;
+
+        void add(int source, int target) {
+            if (this.size == this.from.length) {
+                this.from = Arrays.copyOf(this.from, this.size * 2);
+                this.to = Arrays.copyOf(this.to, this.size * 2);
+            }
+            this.from[this.size] = source;
+            this.to[this.size] = target;
+            this.size++;
+        }
+    }
+
+    /**
+     * Constructor for ParallelIngest.
+     * @param numThreads number of worker threads
+     * @param undirected true to load every edge in both directions, like addUndirectedEdge
+     */
+    public ParallelIngest(int numThreads, boolean undirected) {
+        this.numThreads = Math.max(1, numThreads);
+        this.undirected = undirected;
+        this.ids = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger();
+    }
+
+    /**
+     * Method to load a set of edge files into one graph
+     * @param files edge files to load; each is parsed by exactly one worker
+     * @return IndexedGraph holding every node and edge from the files
+     * @throws IOException if a file cannot be read
+     */
+    public IndexedGraph load(List<Path> files) throws IOException {
+        this.ids.clear();
+        this.nextId.set(0);
+        ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+        try {
+            EdgeBuffer[] buffers = this.parseAll(files, pool);
+            return this.merge(buffers, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Helper method to get the id of a label, giving it the next free id the first time it is seen
+     */
+    private int intern(String label) {
+        Integer id = this.ids.get(label); // the common case (label already seen) takes no lock
+        if (id == null) {
+            id = this.ids.computeIfAbsent(label, key -> this.nextId.getAndIncrement());
+        }
+        return id;
+    }
+
+    /**
+     * Helper method for phase 1: parse every file into one EdgeBuffer per worker
+     */
+    private EdgeBuffer[] parseAll(List<Path> files, ExecutorService pool) throws IOException {
+        AtomicInteger nextFile = new AtomicInteger();
+        EdgeBuffer[] buffers = new EdgeBuffer[this.numThreads];
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < this.numThreads; w++) {
+            EdgeBuffer buffer = new EdgeBuffer();
+            buffers[w] = buffer;
+            workers.add(() -> {
+                for (int f = nextFile.getAndIncrement(); f < files.size(); f = nextFile.getAndIncrement()) {
+                    this.parseFile(files.get(f), buffer);
+                }
+                return null;
+            });
+        }
+        runAll(pool, workers);
+        return buffers;
+    }
+
+    /**
+     * Helper method to parse one edge file into a buffer
+     */
+    private void parseFile(Path file, EdgeBuffer buffer) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    this.intern(line);
+                    continue;
+                }
+                int from = this.intern(line.substring(0, tab));
+                int to = this.intern(line.substring(tab + 1));
+                buffer.add(from, to);
+                if (this.undirected) {
+                    buffer.add(to, from);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method for phases 2 and 3: counting sort the buffers into compressed sparse rows, then sort and
+     * deduplicate each row
+     */
+    private IndexedGraph merge(EdgeBuffer[] buffers, ExecutorService pool) throws IOException {
+        int n = this.nextId.get();
+        String[] labels = new String[n];
+        for (Map.Entry<String, Integer> entry : this.ids.entrySet()) {
+            labels[entry.getValue()] = entry.getKey();
+        }
+        // interning in id order gives every label the same id in the dictionary
+        LabelDictionary dictionary = new LabelDictionary();
+        for (String label : labels) {
+            dictionary.intern(label);
+        }
+
+        // count out-degrees, one task per worker buffer
+        AtomicIntegerArray degree = new AtomicIntegerArray(n);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (EdgeBuffer buffer : buffers) {
+            tasks.add(() -> {
+                for (int i = 0; i < buffer.size; i++) {
+                    degree.incrementAndGet(buffer.from[i]);
+                }
+                return null;
+            });
+        }
+        runAll(pool, tasks);
+
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degree.get(v);
+        }
+        AtomicIntegerArray fill = new AtomicIntegerArray(Arrays.copyOf(offsets, n));
+        int[] targets = new int[offsets[n]];
+
+        // scatter every edge into its source's range
+        tasks.clear();
+        for (EdgeBuffer buffer : buffers) {
+            tasks.add(() -> {
+                for (int i = 0; i < buffer.size; i++) {
+                    targets[fill.getAndIncrement(buffer.from[i])] = buffer.to[i];
+                }
+                return null;
+            });
+        }
+        runAll(pool, tasks);
+
+        // sort each row and squeeze out repeated edges; uniqueCount[v] is the deduplicated degree of v
+        int[] uniqueCount = new int[n];
+        int chunk = (n + this.numThreads - 1) / this.numThreads;
+        tasks.clear();
+        for (int t = 0; t < this.numThreads; t++) {
+            int start = t * chunk;
+            int end = Math.min(n, start + chunk);
+            tasks.add(() -> {
+                for (int v = start; v < end; v++) {
+                    Arrays.sort(targets, offsets[v], offsets[v + 1]);
+                    int unique = 0;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        if (unique == 0 || targets[e] != targets[offsets[v] + unique - 1]) {
+                            targets[offsets[v] + unique++] = targets[e];
+                        }
+                    }
+                    uniqueCount[v] = unique;
+                }
+                return null;
+            });
+        }
+        runAll(pool, tasks);
+
+        int[] compactOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            compactOffsets[v + 1] = compactOffsets[v] + uniqueCount[v];
+        }
+        int[] compactTargets = new int[compactOffsets[n]];
+        tasks.clear();
+        for (int t = 0; t < this.numThreads; t++) {
+            int start = t * chunk;
+            int end = Math.min(n, start + chunk);
+            tasks.add(() -> {
+                for (int v = start; v < end; v++) {
+                    System.arraycopy(targets, offsets[v], compactTargets, compactOffsets[v], uniqueCount[v]);
+                }
+                return null;
+            });
+        }
+        runAll(pool, tasks);
+        return new IndexedGraph(dictionary, compactOffsets, compactTargets);
+    }
+
+    /**
+     * Helper method to run tasks on the pool and wait for all of them, passing on the first failure
+     */
+    private static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("ingest interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
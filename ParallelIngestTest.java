@@ -0,0 +1,75 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.IndexedGraph;
+import sol.NodeEdgeGraph;
+import sol.ParallelIngest;
+import sol.Scheduler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+public class ParallelIngestTest {
+    @Test
+    public void testMatchesSequentialLoad() throws Exception {
+        List<Path> files = new ArrayList<>();
+        IGraph reference = new NodeEdgeGraph("reference");
+        try {
+            // eight shards of random edges, which also overlap in nodes and repeat some edges
+            for (int shard = 0; shard < 8; shard++) {
+                Path file = Files.createTempFile("shard", ".tsv");
+                files.add(file);
+                try (GraphGenerator.FileSink sink = new GraphGenerator.FileSink(file)) {
+                    new GraphGenerator(shard).erdosRenyi(500, 1000, (from, to) -> {
+                        sink.edge(from, to);
+                        reference.addDirectedEdge(from, to);
+                    });
+                }
+            }
+            // a line with only one label is a node with no edges
+            Files.write(files.get(0), "lone node\n".getBytes(), StandardOpenOption.APPEND);
+            reference.addNode("lone node");
+
+            IndexedGraph loaded = new ParallelIngest(4, false).load(files);
+            Assert.assertEquals(reference.getAllNodes().size(), loaded.getAllNodes().size());
+            for (String node : reference.getAllNodes()) {
+                Assert.assertEquals(reference.getNeighbors(node), loaded.getNeighbors(node));
+            }
+            Assert.assertTrue(loaded.indexOf("lone node") >= 0);
+            Assert.assertTrue(loaded.getNeighbors("lone node").isEmpty());
+            LinkedList<String> route = GraphUtils.getRoute(loaded, "node 1", "node 2");
+            Assert.assertEquals("node 2", route.getLast());
+            for (int i = 0; i + 1 < route.size(); i++) {
+                Assert.assertTrue(reference.getNeighbors(route.get(i)).contains(route.get(i + 1)));
+            }
+        } finally {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testUndirectedGridCanBeScheduled() throws Exception {
+        Path file = Files.createTempFile("grid", ".tsv");
+        try {
+            try (GraphGenerator.FileSink sink = new GraphGenerator.FileSink(file)) {
+                new GraphGenerator(34).grid(30, 30, sink);
+            }
+            IndexedGraph loaded = new ParallelIngest(2, true).load(List.of(file));
+            Assert.assertEquals(900, loaded.size());
+            Assert.assertTrue(Scheduler.checkValidity(loaded, Scheduler.findSchedule(loaded)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
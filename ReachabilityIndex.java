@@ -0,0 +1,248 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Graph wrapper that keeps a reachability index up to date as edges are added, so hasRoute is a single bit lookup
+ * instead of a breadth-first-search. Every mutation goes to the wrapped graph first and is then folded into the
+ * index, so changes must be made through the wrapper (changes made to the wrapped graph directly are not seen).
+ *
+ * The index is the transitive closure kept incrementally, in the style of Italiano's algorithm: each node has a
+ * bitset of the nodes it reaches and a bitset of the nodes that reach it. When an edge x -> y is added, only the
+ * nodes that reach x but not yet y can gain anything, and each of them gains exactly the nodes y reaches. Those
+ * rows are ORed with y's row word by word, and the reverse bitsets get one bit per newly reachable pair. An edge
+ * that adds no new pair (the common case once a graph is well connected) costs one bit test. Both bitsets take
+ * N * N bits in total, so this suits graphs of up to some tens of thousands of nodes.
+ */
+public class ReachabilityIndex implements IGraph {
+    private final IGraph graph;
+    private final LabelDictionary labels;
+    private long[][] reach;     // reach[u] has bit v set if there is a route from u to v (including u to u)
+    private long[][] reachedBy; // reachedBy[v] has bit u set if there is a route from u to v
+
+    /**
+     * Constructor for ReachabilityIndex. Indexes every node and edge already in the graph.
+     * @param graph graph to wrap; later mutations must go through the wrapper
+     */
+    public ReachabilityIndex(IGraph graph) {
+        this.graph = graph;
+        this.labels = new LabelDictionary();
+        this.reach = new long[16][];
+        this.reachedBy = new long[16][];
+        for (String node : graph.getAllNodes()) {
+            this.idOf(node);
+        }
+        for (String node : graph.getAllNodes()) {
+            for (String neighbor : graph.getNeighbors(node)) {
+                this.insert(this.idOf(node), this.idOf(neighbor));
+            }
+        }
+    }
+
+    /**
+     * Method to get the wrapped graph
+     * @return the graph mutations are applied to
+     */
+    public IGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Method to check whether there is a path from one node to another. Every node has a route to itself.
+     * @param fromNodeLabel name of the node from which to start
+     * @param toNodeLabel   name of the node we want to reach
+     * @return true if such a route exists, false if not or if either label is not in the graph
+     */
+    public boolean hasRoute(String fromNodeLabel, String toNodeLabel) {
+        int from = this.labels.indexOf(fromNodeLabel);
+        int to = this.labels.indexOf(toNodeLabel);
+        return from >= 0 && to >= 0 && isSet(this.reach[from], to);
+    }
+
+    /**
+     * Method to count the nodes a node has a route to, itself included
+     * @param fromNodeLabel name of the node from which to start
+     * @return number of reachable nodes, or 0 if the label is not in the graph
+     */
+    public int countReachable(String fromNodeLabel) {
+        int from = this.labels.indexOf(fromNodeLabel);
+        if (from < 0) {
+            return 0;
+        }
+        int count = 0;
+        for (long word : this.reach[from]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Method to get every node a node has a route to, itself included
+     * @param fromNodeLabel name of the node from which to start
+     * @return HashSet of the labels of the reachable nodes, empty if the label is not in the graph
+     */
+    public HashSet<String> getReachable(String fromNodeLabel) {
+        HashSet<String> reachable = new HashSet<>();
+        int from = this.labels.indexOf(fromNodeLabel);
+        if (from >= 0) {
+            long[] row = this.reach[from];
+            for (int w = 0; w < row.length; w++) {
+                for (long bits = row[w]; bits != 0; bits &= bits - 1) {
+                    reachable.add(this.labels.label((w << 6) + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Method to add a new node with the given description. An exception will
+     * be thrown if the description already names a node in the graph
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     * associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        this.graph.addNode(descr);
+        this.idOf(descr);
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions, creating the nodes if needed, and update the index
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        this.graph.addDirectedEdge(descr1, descr2);
+        this.insert(this.idOf(descr1), this.idOf(descr2));
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions, creating the nodes if needed, and update the index
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.graph.addUndirectedEdge(descr1, descr2);
+        int id1 = this.idOf(descr1);
+        int id2 = this.idOf(descr2);
+        this.insert(id1, id2);
+        this.insert(id2, id1);
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves, read from the wrapped graph
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        return this.graph.countSelfEdges();
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node, read from the wrapped graph
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        return this.graph.reachesAllOthers(fromNodeLabel);
+    }
+
+    /**
+     * Method to get all the immediate neighbors of a node, read from the wrapped graph
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root.
+     */
+    @Override
+    public HashSet<String> getNeighbors(String rootNode) {
+        return this.graph.getNeighbors(rootNode);
+    }
+
+    /**
+     * Method to return all the nodes in a graph, read from the wrapped graph
+     * @return LinkedList<String> that contains all the Nodes
+     */
+    @Override
+    public LinkedList<String> getAllNodes() {
+        return this.graph.getAllNodes();
+    }
+
+    /**
+     * Helper method to fold a new edge x -> y into the index. Every u that reaches x gains everything y reaches;
+     * a u that already reaches y already has all of it.
+     */
+    private void insert(int x, int y) {
+        if (isSet(this.reach[x], y)) {
+            return;
+        }
+        long[] gained = this.reach[y];
+        long[] sources = this.reachedBy[x]; // not changed below: x is already in every row that gains bits
+        for (int w = 0; w < sources.length; w++) {
+            for (long bits = sources[w]; bits != 0; bits &= bits - 1) {
+                int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (isSet(this.reach[u], y)) {
+                    continue;
+                }
+                if (this.reach[u].length < gained.length) {
+                    this.reach[u] = Arrays.copyOf(this.reach[u], gained.length);
+                }
+                long[] row = this.reach[u];
+                for (int i = 0; i < gained.length; i++) {
+                    long added = gained[i] & ~row[i];
+                    row[i] |= added;
+                    for (; added != 0; added &= added - 1) {
+                        this.setReachedBy((i << 6) + Long.numberOfTrailingZeros(added), u);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to get the id of a node, giving a new node a row that reaches only itself
+     */
+    private int idOf(String label) {
+        int id = this.labels.intern(label);
+        if (id == this.reach.length) {
+            this.reach = Arrays.copyOf(this.reach, 2 * id);
+            this.reachedBy = Arrays.copyOf(this.reachedBy, 2 * id);
+        }
+        if (this.reach[id] == null) {
+            this.reach[id] = new long[(id >>> 6) + 1];
+            this.reach[id][id >>> 6] = 1L << id;
+            this.reachedBy[id] = new long[(id >>> 6) + 1];
+            this.reachedBy[id][id >>> 6] = 1L << id;
+        }
+        return id;
+    }
+
+    /**
+     * Helper method to record that u now reaches v in v's reverse bitset
+     */
+    private void setReachedBy(int v, int u) {
+        if (this.reachedBy[v].length <= (u >>> 6)) {
+            this.reachedBy[v] = Arrays.copyOf(this.reachedBy[v], (u >>> 6) + 1);
+        }
+        this.reachedBy[v][u >>> 6] |= 1L << u;
+    }
+
+    /**
+     * Helper method to test one bit of a bitset that may be shorter than the bit index
+     */
+    private static boolean isSet(long[] bits, int index) {
+        return (index >>> 6) < bits.length && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
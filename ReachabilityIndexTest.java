@@ -0,0 +1,73 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.EdgeArrayGraph;
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.NodeEdgeGraph;
+import sol.ReachabilityIndex;
+import src.NodeNameExistsException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+public class ReachabilityIndexTest {
+    @Test
+    public void testUpdatesOnInsert() throws NodeNameExistsException {
+        ReachabilityIndex index = new ReachabilityIndex(new NodeEdgeGraph("graph"));
+        index.addNode("a");
+        Assert.assertTrue(index.hasRoute("a", "a"));
+        index.addDirectedEdge("b", "c");
+        Assert.assertFalse(index.hasRoute("a", "c"));
+        index.addDirectedEdge("a", "b");
+        Assert.assertTrue(index.hasRoute("a", "c"));
+        Assert.assertFalse(index.hasRoute("c", "a"));
+        index.addUndirectedEdge("c", "d");
+        Assert.assertTrue(index.hasRoute("d", "c"));
+        Assert.assertTrue(index.hasRoute("a", "d"));
+        Assert.assertFalse(index.hasRoute("d", "a"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d")), index.getReachable("a"));
+        Assert.assertEquals(2, index.countReachable("d"));
+        Assert.assertFalse(index.hasRoute("a", "missing"));
+        Assert.assertThrows(NodeNameExistsException.class, () -> index.addNode("a"));
+        Assert.assertTrue(index.getGraph().getNeighbors("a").contains("b"));
+    }
+
+    @Test
+    public void testMatchesBreadthFirstSearch() {
+        // starts from a graph that already has edges, then keeps growing it past 64 nodes
+        NodeEdgeGraph graph = new NodeEdgeGraph("random");
+        new GraphGenerator(41).erdosRenyi(100, 60, GraphGenerator.into(graph, false));
+        ReachabilityIndex index = new ReachabilityIndex(graph);
+        Random random = new Random(41);
+        for (int i = 0; i < 150; i++) {
+            String from = "node " + random.nextInt(150);
+            String to = "node " + random.nextInt(150);
+            if (i % 3 == 0) {
+                index.addUndirectedEdge(from, to);
+            } else {
+                index.addDirectedEdge(from, to);
+            }
+            if (i % 25 == 24) {
+                for (String a : graph.getAllNodes()) {
+                    for (String b : graph.getAllNodes()) {
+                        Assert.assertEquals(GraphUtils.hasRoute(graph, a, b), index.hasRoute(a, b));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWrapsAnyGraph() {
+        EdgeArrayGraph graph = new EdgeArrayGraph("array");
+        graph.addDirectedEdge("x", "y");
+        ReachabilityIndex index = new ReachabilityIndex(graph);
+        index.addDirectedEdge("y", "z");
+        Assert.assertTrue(index.hasRoute("x", "z"));
+        Assert.assertEquals(3, index.getAllNodes().size());
+    }
+}
@@ -0,0 +1,155 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoRouteException;
+import src.NoScheduleException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongFunction;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Runs GraphUtils and Scheduler over generated graphs of doubling size and checks that the measured running time
+ * grows at the expected rate. The growth exponent is the least-squares slope of log time against log size, using the
+ * fastest of several runs at each size, and a test fails when it is well above the expected one (for example
+ * quadratic instead of linear). The tolerance is wide because timings on a shared machine are noisy, and the
+ * timing tests only run when the scaleTests system property is true (-DscaleTests=true), so that a busy machine
+ * cannot fail the default suite. The other tests here always run.
+ */
+public class ScaleTest {
+    private static final long[] SIZES = {25_000, 50_000, 100_000, 200_000};
+    private static final int RUNS = 7;
+    // how far above the expected exponent a measurement may be before the test fails; still below quadratic for
+    // the linear operations
+    private static final double TOLERANCE = 0.8;
+
+    // An operation to time on a graph that has already been built with the given number of nodes
+    private interface Operation {
+        void run(IGraph graph, long size) throws Exception;
+    }
+
+    // Returns the fastest of RUNS timings of operation on graph, in nanoseconds
+    private long fastest(IGraph graph, long size, Operation operation) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            operation.run(graph, size);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(best, 1);
+    }
+
+    // Builds a graph for every size, times operation on each and checks the growth exponent
+    private void assertGrowth(String name, double expectedExponent, LongFunction<IGraph> build, Operation operation)
+            throws Exception {
+        Assume.assumeTrue("timing checks need -DscaleTests=true", Boolean.getBoolean("scaleTests"));
+        IGraph[] graphs = new IGraph[SIZES.length];
+        for (int i = 0; i < SIZES.length; i++) {
+            graphs[i] = build.apply(SIZES[i]);
+            fastest(graphs[i], SIZES[i], operation); // warm up the JIT on every size before timing any of them
+        }
+        System.gc(); // so that garbage from building the graphs is not collected while timing
+        double[] logSize = new double[SIZES.length];
+        double[] logTime = new double[SIZES.length];
+        for (int i = 0; i < SIZES.length; i++) {
+            logSize[i] = Math.log(SIZES[i]);
+            logTime[i] = Math.log(fastest(graphs[i], SIZES[i], operation));
+        }
+        double meanSize = 0;
+        double meanTime = 0;
+        for (int i = 0; i < SIZES.length; i++) {
+            meanSize += logSize[i] / SIZES.length;
+            meanTime += logTime[i] / SIZES.length;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < SIZES.length; i++) {
+            covariance += (logSize[i] - meanSize) * (logTime[i] - meanTime);
+            variance += (logSize[i] - meanSize) * (logSize[i] - meanSize);
+        }
+        double exponent = covariance / variance;
+        Assert.assertTrue(name + " grew like n^" + exponent + ", expected about n^" + expectedExponent,
+                exponent < expectedExponent + TOLERANCE);
+    }
+
+    private static IGraph chain(long size) {
+        IGraph graph = new NodeEdgeGraph("chain");
+        new GraphGenerator(31).chain(size, GraphGenerator.into(graph, false));
+        return graph;
+    }
+
+    private static IGraph grid(long size) {
+        IGraph graph = new NodeEdgeGraph("grid");
+        long side = (long) Math.sqrt(size);
+        new GraphGenerator(31).grid(side, side, GraphGenerator.into(graph, true));
+        return graph;
+    }
+
+    @Test
+    public void testHasRouteIsLinear() throws Exception {
+        assertGrowth("hasRoute", 1, ScaleTest::chain, (graph, size) ->
+                Assert.assertTrue(GraphUtils.hasRoute((NodeEdgeGraph) graph, "node 0", "node " + (size - 1))));
+    }
+
+    @Test
+    public void testGetRouteIsLinear() throws Exception {
+        assertGrowth("getRoute", 1, ScaleTest::chain, (graph, size) ->
+                GraphUtils.getRoute(graph, "node 0", "node " + (size - 1)));
+    }
+
+    @Test
+    public void testFindScheduleIsLinear() throws Exception {
+        assertGrowth("findSchedule", 1, ScaleTest::grid, (graph, size) -> Scheduler.findSchedule(graph));
+    }
+
+    @Test
+    public void testOddCyclesCannotBeScheduled() {
+        IGraph graph = new NodeEdgeGraph("odd cycles");
+        new GraphGenerator(31).bipartiteWithOddCycles(500, 500, 3000, 1, GraphGenerator.into(graph, true));
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(graph));
+
+        IGraph bipartite = new NodeEdgeGraph("bipartite");
+        new GraphGenerator(31).bipartite(500, 500, 3000, GraphGenerator.into(bipartite, true));
+        try {
+            Assert.assertTrue(Scheduler.checkValidity(bipartite, Scheduler.findSchedule(bipartite)));
+        } catch (NoScheduleException e) {
+            fail("findSchedule did not find a schedule for a bipartite graph");
+        }
+    }
+
+    @Test
+    public void testGeneratorIsDeterministic() throws IOException {
+        Path first = Files.createTempFile("rmat", ".tsv");
+        Path second = Files.createTempFile("rmat", ".tsv");
+        try {
+            try (GraphGenerator.FileSink sink = new GraphGenerator.FileSink(first)) {
+                new GraphGenerator(7).rmat(12, 20_000, 0.57, 0.19, 0.19, sink);
+                Assert.assertEquals(20_000, sink.getEdgeCount());
+            }
+            try (GraphGenerator.FileSink sink = new GraphGenerator.FileSink(second)) {
+                new GraphGenerator(7).rmat(12, 20_000, 0.57, 0.19, 0.19, sink);
+            }
+            Assert.assertEquals(Files.readAllLines(first), Files.readAllLines(second));
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void testNoRouteOnChainBackwards() {
+        IGraph graph = chain(1000);
+        Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(graph, "node 999", "node 0"));
+    }
+}
@@ -33,11 +33,10 @@ public class Scheduler {
         }
 
         //Verify that all the labs from the graph have been assigned to a teacher
-        HashSet<String> allLabs = new HashSet<>(proposedAlloc.get(0)); //get a single list with all the labs
-        allLabs.addAll(proposedAlloc.get(1));
-
-        if (!allLabs.containsAll(theGraph.getAllNodes())) {
-            return false;
+        for (String lab : theGraph.getAllNodes()) {
+            if (!proposedAlloc.get(0).contains(lab) && !proposedAlloc.get(1).contains(lab)) {
+                return false;
+            }
         }
 
         //Verify that all the neighbors of a node, which is assigned to one teacher, are assigned to the other teacher.
@@ -78,44 +77,152 @@ public class Scheduler {
      * @throws NoScheduleException if no such split exists
      */
     public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph) throws NoScheduleException {
-        ArrayList<HashSet<String>> schedule = new ArrayList<>(); //initialize schedule to create
+        if (theGraph instanceof NodeEdgeGraph) { //node ids let us search with the workspace instead of sets
+            return findSchedule((NodeEdgeGraph) theGraph, TraversalWorkspace.get());
+        }
+        //any other graph is scheduled on an id snapshot, so its edges count in both directions just the same
+        IndexedGraph indexed = theGraph instanceof IndexedGraph ? (IndexedGraph) theGraph : IndexedGraph.of(theGraph);
+        return findSchedule(indexed, TraversalWorkspace.get());
+    }
 
-        //to keep track of nodes that have been checked and ones that need to be checked
-        Stack<String> queue = new Stack<>();
-        HashSet<String> visited = new HashSet<>();
+    /**
+     * Method to compute a valid split of the graph nodes without violating scheduling constraints, if such a split
+     * exists. Labs are merged into clusters with union-find over node ids, where each lab also records whether it
+     * has the same teacher as its parent in the forest or the other one. Every edge, in whichever direction it was
+     * added, joins its two labs with opposite teachers, or fails if they are already in one cluster with the same
+     * teacher, so nothing depends on the order the nodes were added in. The forest lives in the given workspace,
+     * and the returned schedule is the only thing allocated once the workspace has grown to the size of the graph.
+     *
+     * @param theGraph  the graph to try to schedule
+     * @param workspace scratch space for the search, not in use by any other traversal
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException if no such split exists
+     */
+    public static ArrayList<HashSet<String>> findSchedule(NodeEdgeGraph theGraph, TraversalWorkspace workspace)
+            throws NoScheduleException {
+        int numNodes = theGraph.nodesById.size();
+        beginForest(workspace, numNodes);
+        int[] flip = workspace.side;
+
+        for (int id = 0; id < numNodes; id++) {
+            for (NodeEdgeGraph.Node neighbor : theGraph.nodesById.get(id).nextNodes) {
+                joinOpposite(workspace, id, neighbor.id);
+            }
+        }
 
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        schedule.add(new HashSet<>()); //for teacher 0
+        schedule.add(new HashSet<>()); // for teacher 1
+        for (int id = 0; id < numNodes; id++) {
+            findRoot(workspace, id);
+            schedule.get(flip[id]).add(theGraph.nodesById.get(id).descr); //each cluster's root gets teacher 0
+        }
+        return schedule;
+    }
 
-        //empty sets to add labs to
+    /**
+     * Method to compute a valid split of the nodes of an IndexedGraph without violating scheduling constraints, if
+     * such a split exists. Works like the NodeEdgeGraph version: every edge joins its two labs with opposite
+     * teachers in a union-find forest over node ids, whichever direction it points in.
+     *
+     * @param theGraph  the graph to try to schedule
+     * @param workspace scratch space for the search, not in use by any other traversal
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException if no such split exists
+     */
+    public static ArrayList<HashSet<String>> findSchedule(IndexedGraph theGraph, TraversalWorkspace workspace)
+            throws NoScheduleException {
+        int numNodes = theGraph.size();
+        beginForest(workspace, numNodes);
+        int[] flip = workspace.side;
+        int[] targets = theGraph.targets();
+        for (int id = 0; id < numNodes; id++) {
+            for (int e = theGraph.firstEdge(id); e < theGraph.endEdge(id); e++) {
+                joinOpposite(workspace, id, targets[e]);
+            }
+        }
+
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
         schedule.add(new HashSet<>()); //for teacher 0
         schedule.add(new HashSet<>()); // for teacher 1
+        for (int id = 0; id < numNodes; id++) {
+            findRoot(workspace, id);
+            schedule.get(flip[id]).add(theGraph.label(id)); //each cluster's root gets teacher 0
+        }
+        return schedule;
+    }
 
-        int currentTeacher = 0;
-
-        //For every node cluster, this assigns an arbitrary start node to a teacher, then assigns the neighbors of
-        // the start node to the opposite teacher. It does the same for each neighbor.
-        for (String node : theGraph.getAllNodes()) { //to make sure unconnected Nodes are added to the schedule
-            if (!visited.contains(node)) {
-                schedule.get(currentTeacher).add(node); //assign start node and add it to queue
-                queue.push(node);
-                while (!queue.isEmpty()) { //repeat until node cluster has assigned teachers
-                    String currentNode = queue.pop();
-                        visited.add(currentNode);
-                        currentTeacher = (currentTeacher + 1) % 2; //get other teacher
-                        for (String neighbor : theGraph.getNeighbors(currentNode)) {
-                            if (!visited.contains(neighbor)){
-                                schedule.get(currentTeacher).add(neighbor); //assign neighbors to other teacher
-                                queue.push(neighbor); //add neighbors to queue
-                            }
-                        }
-                }
+    /**
+     * Helper method for findSchedule that starts a union-find forest in which every lab is a cluster of its own.
+     * The forest lives in the workspace: parent holds each lab's parent, side its flip (1 if it has the other
+     * teacher than its parent, 0 for a root) and queue the number of labs in each root's cluster.
+     */
+    private static void beginForest(TraversalWorkspace workspace, int numNodes) {
+        workspace.begin(numNodes);
+        int[] parent = workspace.parent;
+        int[] flip = workspace.side;
+        int[] size = workspace.queue;
+        for (int id = 0; id < numNodes; id++) {
+            parent[id] = id;
+            flip[id] = 0;
+            size[id] = 1;
+        }
+    }
+
+    /**
+     * Helper method for findSchedule that records an edge between two labs: they must have opposite teachers, so
+     * their clusters are merged with that constraint, or checked against it if they are already one cluster.
+     * @throws NoScheduleException if the two labs (or a lab and itself) already have to share a teacher
+     */
+    private static void joinOpposite(TraversalWorkspace workspace, int id1, int id2) throws NoScheduleException {
+        int[] parent = workspace.parent;
+        int[] flip = workspace.side;
+        int[] size = workspace.queue;
+        int root1 = findRoot(workspace, id1);
+        int root2 = findRoot(workspace, id2);
+        if (root1 == root2) {
+            if (flip[id1] == flip[id2]) {
+                throw new NoScheduleException(); //two connected labs (or a lab and itself) share a teacher
             }
+            return;
         }
+        if (size[root1] < size[root2]) { //hang the smaller cluster under the larger one
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        //the two labs must have opposite teachers, which fixes how root2 relates to root1
+        parent[root2] = root1;
+        flip[root2] = flip[id1] ^ flip[id2] ^ 1;
+        size[root1] += size[root2];
+    }
 
-        if (checkValidity(theGraph, schedule)) { //Only return the schedule if it's a valid schedule
-            return schedule;
-        } else {
-            throw new NoScheduleException(); //exception is thrown if the schedule is not valid
+    /**
+     * Helper method for findSchedule that finds the root of a lab's cluster and points every lab on the way
+     * straight at it. Afterwards the lab's flip says whether it has the other teacher than the root.
+     * @return the root of the lab's cluster
+     */
+    private static int findRoot(TraversalWorkspace workspace, int id) {
+        int[] parent = workspace.parent;
+        int[] flip = workspace.side;
+        int root = id;
+        int toRoot = 0;
+        while (parent[root] != root) {
+            toRoot ^= flip[root];
+            root = parent[root];
+        }
+        //second pass: toRoot is the flip of the current lab relative to the root
+        while (parent[id] != root && id != root) {
+            int next = parent[id];
+            int nextToRoot = toRoot ^ flip[id];
+            parent[id] = root;
+            flip[id] = toRoot;
+            id = next;
+            toRoot = nextToRoot;
         }
+        return root;
     }
 
 }
@@ -5,6 +5,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.HashSet;
 
+import sol.AdaptiveGraph;
 import sol.EdgeArrayGraph;
 import sol.IGraph;
 import sol.NodeEdgeGraph;
@@ -113,4 +114,75 @@ public class    SchedulerTest {
             Assert.fail("Could not create graph to test");
         }
     }
+
+    @Test
+    public void testFindScheduleBranchingTree(){
+        // a tree is always schedulable, whichever order its branches are visited in
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("an array graph")};
+        for (IGraph tree : graphs) {
+            tree.addUndirectedEdge("node 1", "node 2");
+            tree.addUndirectedEdge("node 1", "node 3");
+            tree.addUndirectedEdge("node 2", "node 4");
+            tree.addUndirectedEdge("node 3", "node 5");
+            try {
+                ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(tree);
+                Assert.assertTrue(Scheduler.checkValidity(tree, schedule));
+            } catch (NoScheduleException e) {
+                Assert.fail("findSchedule did not find a schedule");
+            }
+        }
+    }
+
+    @Test
+    public void testFindScheduleDirectedEdgesAgainstNodeOrder() throws NodeNameExistsException {
+        // each edge points at a node added earlier, so following edges forward from the first node reaches nothing
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("an array graph"),
+                new AdaptiveGraph("an adaptive graph")};
+        for (IGraph graph : graphs) {
+            graph.addNode("node 2");
+            graph.addNode("node 1");
+            graph.addDirectedEdge("node 1", "node 2");
+            graph.addDirectedEdge("node 3", "node 2");
+            graph.addDirectedEdge("node 4", "node 3");
+            try {
+                ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(graph);
+                Assert.assertTrue(Scheduler.checkValidity(graph, schedule));
+            } catch (NoScheduleException e) {
+                Assert.fail("findSchedule did not find a schedule");
+            }
+
+            // closing an odd cycle through the directed edges still makes the graph unschedulable
+            graph.addDirectedEdge("node 4", "node 1");
+            graph.addDirectedEdge("node 5", "node 4");
+            graph.addDirectedEdge("node 5", "node 1");
+            Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(graph));
+        }
+    }
+
+    @Test
+    public void testFindScheduleSingleDirectedEdge() throws NodeNameExistsException {
+        // the edge points at the node added first, and the labs at its two ends must still be split
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("an array graph"),
+                new AdaptiveGraph("an adaptive graph")};
+        for (IGraph graph : graphs) {
+            graph.addNode("node 2");
+            graph.addDirectedEdge("node 1", "node 2");
+            try {
+                ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(graph);
+                Assert.assertTrue(Scheduler.checkValidity(graph, schedule));
+                Assert.assertEquals(1, schedule.get(0).size());
+                Assert.assertEquals(1, schedule.get(1).size());
+            } catch (NoScheduleException e) {
+                Assert.fail("findSchedule did not find a schedule");
+            }
+        }
+    }
+
+    @Test
+    public void testFindScheduleSelfEdge(){
+        NodeEdgeGraph graph = new NodeEdgeGraph("a graph");
+        graph.addUndirectedEdge("node 1", "node 2");
+        graph.addDirectedEdge("node 2", "node 2");
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(graph));
+    }
 }
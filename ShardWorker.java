@@ -0,0 +1,183 @@
+package sol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Worker process for DistributedBfs. It loads one shard file written by GraphPartitioner.writeShards, listens on a
+ * local port (printed as the first line of its standard output), accepts a single coordinator connection and then
+ * answers commands until told to shut down. The worker owns the visited marks and BFS parents of its own nodes.
+ * Everything it keeps is sized to its own nodes and edges, not to the whole graph: global ids are turned into local
+ * ones by binary search over the sorted ids of the nodes it owns.
+ *
+ * Protocol, all numbers as big-endian ints:
+ * RESET target            start a new search for the given target node id
+ * EXPAND count (node parent)*   visit the given nodes of this shard (skipping ones already visited) and reply with
+ *                         found (1 if the target was just visited, else 0); if not found, follow it with count and
+ *                         one (successor parent) pair for every successor of a newly visited node that is not
+ *                         already known to be visited
+ * PARENT node             reply with the BFS parent of a node of this shard (-1 for the start node)
+ * SHUTDOWN                close the connection and exit
+ */
+public class ShardWorker {
+    static final int RESET = 1;
+    static final int EXPAND = 2;
+    static final int PARENT = 3;
+    static final int SHUTDOWN = 4;
+
+    private final int[] globalId; // index among this shard's nodes -> global id, in increasing order
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] stamp;
+    private final int[] parent;
+    private int epoch;
+    private int target;
+
+    /**
+     * Constructor for ShardWorker. Reads the shard file.
+     * @param shardFile file written by GraphPartitioner.writeShards
+     * @throws IOException if the file cannot be read
+     */
+    ShardWorker(Path shardFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(shardFile)))) {
+            in.readInt(); // number of nodes in the whole graph
+            in.readInt(); // shard id
+            int owned = in.readInt();
+            this.globalId = new int[owned];
+            this.offsets = new int[owned + 1];
+            int[] edges = new int[16];
+            int size = 0;
+            for (int i = 0; i < owned; i++) {
+                this.globalId[i] = in.readInt(); // writeShards writes the nodes in increasing id order
+                int degree = in.readInt();
+                this.offsets[i] = size;
+                if (edges.length < size + degree) {
+                    edges = Arrays.copyOf(edges, Math.max(edges.length * 2, size + degree));
+                }
+                for (int k = 0; k < degree; k++) {
+                    edges[size++] = in.readInt();
+                }
+            }
+            this.offsets[owned] = size;
+            this.targets = Arrays.copyOf(edges, size);
+            this.stamp = new int[owned];
+            this.parent = new int[owned];
+        }
+    }
+
+    /**
+     * Method to start a worker from the command line
+     * @param args the path of the shard file
+     * @throws IOException if the shard cannot be read or the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        ShardWorker worker = new ShardWorker(Paths.get(args[0]));
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println(server.getLocalPort());
+            System.out.flush();
+            try (Socket socket = server.accept()) {
+                socket.setTcpNoDelay(true);
+                worker.serve(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            }
+        }
+    }
+
+    /**
+     * Method to answer commands until SHUTDOWN or until the coordinator disconnects
+     * @param in  commands from the coordinator
+     * @param out replies to the coordinator
+     * @throws IOException if the connection fails
+     */
+    void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int command = in.readInt();
+            if (command == RESET) {
+                this.target = in.readInt();
+                this.epoch++;
+            } else if (command == EXPAND) {
+                this.expand(in, out);
+                out.flush();
+            } else if (command == PARENT) {
+                out.writeInt(this.parent[this.localIndex(in.readInt())]);
+                out.flush();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to handle one EXPAND command. The newly visited nodes are kept in the request order, then all
+     * of their successors are sent back in one batch.
+     */
+    private void expand(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        int[] visitedNow = new int[count];
+        int numVisited = 0;
+        boolean found = false;
+        for (int i = 0; i < count; i++) {
+            int node = in.readInt();
+            int from = in.readInt();
+            int local = this.localIndex(node);
+            if (this.stamp[local] != this.epoch) {
+                this.stamp[local] = this.epoch;
+                this.parent[local] = from;
+                visitedNow[numVisited++] = local;
+                found |= node == this.target;
+            }
+        }
+        out.writeInt(found ? 1 : 0);
+        if (found) {
+            return; // the search is over, so the next frontier is not needed
+        }
+
+        // successors owned here that are already visited are dropped now instead of making a round trip
+        int numPairs = 0;
+        for (int i = 0; i < numVisited; i++) {
+            for (int e = this.offsets[visitedNow[i]]; e < this.offsets[visitedNow[i] + 1]; e++) {
+                if (this.isNew(this.targets[e])) {
+                    numPairs++;
+                }
+            }
+        }
+        out.writeInt(numPairs);
+        for (int i = 0; i < numVisited; i++) {
+            int local = visitedNow[i];
+            for (int e = this.offsets[local]; e < this.offsets[local + 1]; e++) {
+                if (this.isNew(this.targets[e])) {
+                    out.writeInt(this.targets[e]);
+                    out.writeInt(this.globalId[local]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to check whether a successor might still need visiting: it is owned elsewhere, or owned here
+     * and not yet visited in this search
+     */
+    private boolean isNew(int node) {
+        int local = this.localIndex(node);
+        return local < 0 || this.stamp[local] != this.epoch;
+    }
+
+    /**
+     * Helper method to turn a global node id into an index among this shard's nodes
+     * @return the local index, or -1 if the node is owned by another shard
+     */
+    private int localIndex(int node) {
+        int local = Arrays.binarySearch(this.globalId, node);
+        return local < 0 ? -1 : local;
+    }
+}
@@ -0,0 +1,462 @@
+package sol;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decomposition of a graph into strongly connected components. Two nodes are in the same component if each has a
+ * route to the other. Both algorithms here are iterative and keep their state in int arrays, so they do not overflow
+ * the call stack on deep graphs. The condensation (one node per component) is always a DAG and is usually much
+ * smaller than the original graph, so reachability and scheduling questions can be answered on it instead.
+ */
+public class StronglyConnectedComponents {
+    // sets smaller than this are finished by the task that found them instead of being forked
+    private static final int FORK_THRESHOLD = 1024;
+
+    private final IndexedGraph graph;
+    private final int[] componentOf;
+    private final int count;
+
+    /**
+     * Constructor for StronglyConnectedComponents. Only called by find and findParallel.
+     * @param graph       snapshot the components were computed on
+     * @param componentOf component id of each node id
+     * @param count       number of components
+     */
+    private StronglyConnectedComponents(IndexedGraph graph, int[] componentOf, int count) {
+        this.graph = graph;
+        this.componentOf = componentOf;
+        this.count = count;
+    }
+
+    /**
+     * Method to find the strongly connected components of a graph using Pearce's iterative variant of Tarjan's
+     * algorithm. It runs in O(N + E) time and needs one int of index per node plus the explicit call stack.
+     * Component ids are in reverse topological order: every edge between two components goes from a higher id to
+     * a lower id.
+     * @param theGraph graph to decompose
+     * @return the components of theGraph
+     */
+    public static StronglyConnectedComponents find(IGraph theGraph) {
+        IndexedGraph g = IndexedGraph.of(theGraph);
+        int n = g.size();
+        int[] targets = g.targets();
+
+        int[] rindex = new int[n]; // 0 = unvisited, otherwise visit index, or component slot once finished
+        boolean[] root = new boolean[n];
+        int[] stack = new int[n]; // nodes visited but not yet assigned to a component
+        int sp = 0;
+        int[] callNode = new int[n]; // explicit call stack replacing recursion
+        int[] callEdge = new int[n];
+        int index = 1;
+        int c = n - 1; // component slots are handed out from n - 1 downwards
+
+        for (int start = 0; start < n; start++) {
+            if (rindex[start] != 0) {
+                continue;
+            }
+            rindex[start] = index++;
+            root[start] = true;
+            callNode[0] = start;
+            callEdge[0] = g.firstEdge(start);
+            int cp = 1;
+
+            while (cp > 0) {
+                int v = callNode[cp - 1];
+                int e = callEdge[cp - 1];
+                int end = g.endEdge(v);
+                boolean descended = false;
+                while (e < end) {
+                    int w = targets[e];
+                    if (rindex[w] == 0) { // "recurse" into w; we come back to this same edge once w is finished
+                        callEdge[cp - 1] = e;
+                        rindex[w] = index++;
+                        root[w] = true;
+                        callNode[cp] = w;
+                        callEdge[cp] = g.firstEdge(w);
+                        cp++;
+                        descended = true;
+                        break;
+                    }
+                    if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[v] = false;
+                    }
+                    e++;
+                }
+                if (descended) {
+                    continue;
+                }
+
+                // every edge of v has been explored
+                if (root[v]) {
+                    index--;
+                    while (sp > 0 && rindex[v] <= rindex[stack[sp - 1]]) {
+                        rindex[stack[--sp]] = c;
+                        index--;
+                    }
+                    rindex[v] = c;
+                    c--;
+                } else {
+                    stack[sp++] = v;
+                }
+                cp--;
+            }
+        }
+
+        // slots were handed out downwards from n - 1, so turn them into ids starting at 0
+        for (int v = 0; v < n; v++) {
+            rindex[v] = n - 1 - rindex[v];
+        }
+        return new StronglyConnectedComponents(g, rindex, n - 1 - c);
+    }
+
+    /**
+     * Method to find the strongly connected components of a graph on several cores. Nodes with no incoming or no
+     * outgoing edges are first trimmed off as singleton components, then the forward-backward algorithm is run on
+     * what remains: the nodes both reachable from and reaching a pivot form one component, and the three leftover
+     * sets (forward only, backward only, neither) cannot share a component, so they are processed in parallel.
+     * Component ids are not in any particular order.
+     * @param theGraph    graph to decompose
+     * @param parallelism number of worker threads to use
+     * @return the components of theGraph
+     */
+    public static StronglyConnectedComponents findParallel(IGraph theGraph, int parallelism) {
+        IndexedGraph g = IndexedGraph.of(theGraph);
+        IndexedGraph rev = g.reverse();
+        int n = g.size();
+        int[] componentOf = new int[n];
+        Arrays.fill(componentOf, -1);
+        AtomicInteger nextComponent = new AtomicInteger();
+
+        int trimmed = trim(g, rev, componentOf, nextComponent);
+        if (trimmed == n) {
+            return new StronglyConnectedComponents(g, componentOf, nextComponent.get());
+        }
+
+        // every node still in play starts with color 0; finished nodes get DONE
+        int[] color = new int[n];
+        int[] remaining = new int[n - trimmed];
+        int r = 0;
+        for (int v = 0; v < n; v++) {
+            if (componentOf[v] >= 0) {
+                color[v] = ForwardBackwardTask.DONE;
+            } else {
+                remaining[r++] = v;
+            }
+        }
+
+        AtomicInteger nextColor = new AtomicInteger(1);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            // invoke returns once every forked task has been joined, and rethrows the first failure of any of them
+            pool.invoke(new ForwardBackwardTask(g, rev, color, componentOf, nextColor, nextComponent, remaining, 0));
+        } finally {
+            pool.shutdown();
+        }
+        return new StronglyConnectedComponents(g, componentOf, nextComponent.get());
+    }
+
+    /**
+     * Helper method for findParallel that repeatedly removes nodes with no remaining incoming or outgoing edges.
+     * Each removed node is its own component.
+     * @param g             the graph
+     * @param rev           the reverse of g
+     * @param componentOf   component id of each node, -1 while unassigned; filled in for trimmed nodes
+     * @param nextComponent source of fresh component ids
+     * @return number of nodes trimmed
+     */
+    private static int trim(IndexedGraph g, IndexedGraph rev, int[] componentOf, AtomicInteger nextComponent) {
+        int n = g.size();
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            outDegree[v] = g.endEdge(v) - g.firstEdge(v);
+            inDegree[v] = rev.endEdge(v) - rev.firstEdge(v);
+        }
+
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0 || outDegree[v] == 0) {
+                componentOf[v] = nextComponent.getAndIncrement();
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                int w = g.targets()[e];
+                if (componentOf[w] < 0 && --inDegree[w] == 0) {
+                    componentOf[w] = nextComponent.getAndIncrement();
+                    queue[tail++] = w;
+                }
+            }
+            for (int e = rev.firstEdge(v); e < rev.endEdge(v); e++) {
+                int w = rev.targets()[e];
+                if (componentOf[w] < 0 && --outDegree[w] == 0) {
+                    componentOf[w] = nextComponent.getAndIncrement();
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Task that splits one set of nodes (all sharing a color) with the forward-backward step. Large leftover sets
+     * are forked as new tasks and small ones are kept on a local work list; a task joins the tasks it forked before
+     * it completes, so an exception in any of them reaches the caller. Colors are never reused, so a task can only
+     * ever match its own nodes when it reads the color of a neighbor.
+     */
+    private static class ForwardBackwardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        static final int DONE = -1;
+
+        private final IndexedGraph g;
+        private final IndexedGraph rev;
+        private final int[] color;
+        private final int[] componentOf;
+        private final AtomicInteger nextColor;
+        private final AtomicInteger nextComponent;
+        private final int[] members;
+        private final int setColor;
+
+        /**
+         * Constructor for ForwardBackwardTask.
+         * @param g             the graph
+         * @param rev           the reverse of g
+         * @param color         shared color of each node
+         * @param componentOf   shared component id of each node
+         * @param nextColor     source of fresh colors
+         * @param nextComponent source of fresh component ids
+         * @param members       nodes in this task's set
+         * @param setColor      color shared by every node in members
+         */
+        ForwardBackwardTask(IndexedGraph g, IndexedGraph rev, int[] color, int[] componentOf, AtomicInteger nextColor,
+                            AtomicInteger nextComponent, int[] members, int setColor) {
+            this.g = g;
+            this.rev = rev;
+            this.color = color;
+            this.componentOf = componentOf;
+            this.nextColor = nextColor;
+            this.nextComponent = nextComponent;
+            this.members = members;
+            this.setColor = setColor;
+        }
+
+        @Override
+        protected void compute() {
+            ArrayDeque<int[]> work = new ArrayDeque<>(); // pairs of (members, color) stored as {color, members...}
+            work.push(prepend(this.setColor, this.members));
+            ArrayList<ForwardBackwardTask> forked = new ArrayList<>();
+            int[] queue = new int[this.members.length];
+            while (!work.isEmpty()) {
+                int[] item = work.pop();
+                int c = item[0];
+                int size = item.length - 1;
+                if (queue.length < size) {
+                    queue = new int[size];
+                }
+                int forwardColor = this.nextColor.getAndIncrement();
+                int backwardColor = this.nextColor.getAndIncrement();
+                int pivot = item[1];
+
+                // forward search from the pivot inside the set
+                int head = 0;
+                int tail = 0;
+                this.color[pivot] = forwardColor;
+                queue[tail++] = pivot;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int e = this.g.firstEdge(v); e < this.g.endEdge(v); e++) {
+                        int w = this.g.targets()[e];
+                        if (this.color[w] == c) {
+                            this.color[w] = forwardColor;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                // backward search: forward-reached nodes found again form the pivot's component
+                int component = this.nextComponent.getAndIncrement();
+                head = 0;
+                tail = 0;
+                this.componentOf[pivot] = component;
+                this.color[pivot] = DONE;
+                queue[tail++] = pivot;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int e = this.rev.firstEdge(v); e < this.rev.endEdge(v); e++) {
+                        int w = this.rev.targets()[e];
+                        if (this.color[w] == forwardColor) {
+                            this.componentOf[w] = component;
+                            this.color[w] = DONE;
+                            queue[tail++] = w;
+                        } else if (this.color[w] == c) {
+                            this.color[w] = backwardColor;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                // split what is left of the set by color
+                int[] counts = new int[3];
+                for (int i = 1; i <= size; i++) {
+                    int slot = slot(this.color[item[i]], forwardColor, backwardColor, c);
+                    if (slot >= 0) {
+                        counts[slot]++;
+                    }
+                }
+                int[][] parts = {new int[counts[0] + 1], new int[counts[1] + 1], new int[counts[2] + 1]};
+                int[] fill = {1, 1, 1};
+                parts[0][0] = forwardColor;
+                parts[1][0] = backwardColor;
+                parts[2][0] = c;
+                for (int i = 1; i <= size; i++) {
+                    int slot = slot(this.color[item[i]], forwardColor, backwardColor, c);
+                    if (slot >= 0) {
+                        parts[slot][fill[slot]++] = item[i];
+                    }
+                }
+                for (int[] part : parts) {
+                    if (part.length == 1) {
+                        continue;
+                    }
+                    if (part.length > FORK_THRESHOLD) {
+                        ForwardBackwardTask task = new ForwardBackwardTask(this.g, this.rev, this.color,
+                                this.componentOf, this.nextColor, this.nextComponent,
+                                Arrays.copyOfRange(part, 1, part.length), part[0]);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        work.push(part);
+                    }
+                }
+            }
+            for (ForwardBackwardTask task : forked) {
+                task.join();
+            }
+        }
+
+        /**
+         * Helper method to pick which leftover set a node belongs to
+         * @return 0 for forward only, 1 for backward only, 2 for neither, -1 if the node now has a component
+         */
+        private static int slot(int nodeColor, int forwardColor, int backwardColor, int c) {
+            if (nodeColor == forwardColor) return 0;
+            if (nodeColor == backwardColor) return 1;
+            if (nodeColor == c) return 2;
+            return -1;
+        }
+
+        /**
+         * Helper method to build a work item: the color followed by the members
+         */
+        private static int[] prepend(int first, int[] rest) {
+            int[] result = new int[rest.length + 1];
+            result[0] = first;
+            System.arraycopy(rest, 0, result, 1, rest.length);
+            return result;
+        }
+    }
+
+    /**
+     * Method to get the number of components
+     * @return number of strongly connected components
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Method to get the component id of a node
+     * @param label label of the node
+     * @return component id between 0 and count() - 1, or -1 if the label is not in the graph
+     */
+    public int componentOf(String label) {
+        int index = this.graph.indexOf(label);
+        return index < 0 ? -1 : this.componentOf[index];
+    }
+
+    /**
+     * Method to check whether two nodes are in the same component, which means each has a route to the other
+     * @param label1 first node
+     * @param label2 second node
+     * @return true if both nodes are in the graph and in the same component
+     */
+    public boolean sameComponent(String label1, String label2) {
+        int c1 = this.componentOf(label1);
+        return c1 >= 0 && c1 == this.componentOf(label2);
+    }
+
+    /**
+     * Method to get the labels of every node in a component
+     * @param component component id
+     * @return LinkedList of node labels in the component
+     */
+    public LinkedList<String> getMembers(int component) {
+        LinkedList<String> members = new LinkedList<>();
+        for (int v = 0; v < this.componentOf.length; v++) {
+            if (this.componentOf[v] == component) {
+                members.add(this.graph.label(v));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Method to build the condensation of the graph: one node per component, labelled with the component id, and an
+     * edge between two components whenever some edge of the original graph joins them. Edges inside a component
+     * are dropped, so the result is a DAG.
+     * @return NodeEdgeGraph holding the condensed DAG
+     */
+    public IGraph getCondensation() {
+        int n = this.componentOf.length;
+        NodeEdgeGraph condensation = new NodeEdgeGraph("condensation");
+        String[] labels = new String[this.count];
+        for (int c = 0; c < this.count; c++) {
+            labels[c] = String.valueOf(c);
+            condensation.addNodeUnchecked(labels[c]);
+        }
+
+        // group nodes by component with a counting sort so each component's out-edges are handled together
+        int[] start = new int[this.count + 1];
+        for (int v = 0; v < n; v++) {
+            start[this.componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < this.count; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = Arrays.copyOf(start, this.count);
+        int[] byComponent = new int[n];
+        for (int v = 0; v < n; v++) {
+            byComponent[fill[this.componentOf[v]]++] = v;
+        }
+
+        // lastSeen[d] == c means the edge c -> d was already added
+        int[] lastSeen = new int[this.count];
+        Arrays.fill(lastSeen, -1);
+        int[] targets = this.graph.targets();
+        for (int c = 0; c < this.count; c++) {
+            lastSeen[c] = c;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                int v = byComponent[i];
+                for (int e = this.graph.firstEdge(v); e < this.graph.endEdge(v); e++) {
+                    int d = this.componentOf[targets[e]];
+                    if (lastSeen[d] != c) {
+                        lastSeen[d] = c;
+                        condensation.addDirectedEdgeUnchecked(labels[c], labels[d]);
+                    }
+                }
+            }
+        }
+        return condensation;
+    }
+}
@@ -0,0 +1,76 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import sol.StronglyConnectedComponents;
+
+import java.util.Random;
+
+public class StronglyConnectedComponentsTest {
+    // Two cycles (1 2 3) and (4 5) joined by a one-way edge, plus a lone node 6
+    private IGraph makeTwoCycleGraph() {
+        IGraph graph = new NodeEdgeGraph("two cycles");
+        graph.addDirectedEdge("node 1", "node 2");
+        graph.addDirectedEdge("node 2", "node 3");
+        graph.addDirectedEdge("node 3", "node 1");
+        graph.addUndirectedEdge("node 4", "node 5");
+        graph.addDirectedEdge("node 3", "node 4");
+        graph.addDirectedEdge("node 6", "node 6");
+        return graph;
+    }
+
+    @Test
+    public void testFindComponents() {
+        StronglyConnectedComponents scc = StronglyConnectedComponents.find(makeTwoCycleGraph());
+        Assert.assertEquals(3, scc.count());
+        Assert.assertTrue(scc.sameComponent("node 1", "node 3"));
+        Assert.assertTrue(scc.sameComponent("node 4", "node 5"));
+        Assert.assertFalse(scc.sameComponent("node 3", "node 4"));
+        Assert.assertFalse(scc.sameComponent("node 5", "node 6"));
+        // ids are in reverse topological order
+        Assert.assertTrue(scc.componentOf("node 1") > scc.componentOf("node 4"));
+    }
+
+    @Test
+    public void testCondensation() {
+        StronglyConnectedComponents scc = StronglyConnectedComponents.find(makeTwoCycleGraph());
+        IGraph condensation = scc.getCondensation();
+        String first = String.valueOf(scc.componentOf("node 1"));
+        String second = String.valueOf(scc.componentOf("node 4"));
+        Assert.assertEquals(3, condensation.getAllNodes().size());
+        Assert.assertEquals("[" + second + "]", condensation.getNeighbors(first).toString());
+        Assert.assertTrue(condensation.getNeighbors(second).isEmpty());
+        Assert.assertEquals(0, condensation.countSelfEdges());
+    }
+
+    @Test
+    public void testDeepChainDoesNotOverflow() {
+        IGraph chain = new NodeEdgeGraph("chain");
+        for (int i = 0; i < 100000; i++) {
+            chain.addDirectedEdge("node " + i, "node " + (i + 1));
+        }
+        chain.addDirectedEdge("node 100000", "node 0");
+        Assert.assertEquals(1, StronglyConnectedComponents.find(chain).count());
+        Assert.assertEquals(1, StronglyConnectedComponents.findParallel(chain, 4).count());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        IGraph graph = new NodeEdgeGraph("random");
+        Random random = new Random(26);
+        for (int i = 0; i < 5000; i++) {
+            graph.addDirectedEdge("node " + random.nextInt(3000), "node " + random.nextInt(3000));
+        }
+        StronglyConnectedComponents sequential = StronglyConnectedComponents.find(graph);
+        StronglyConnectedComponents parallel = StronglyConnectedComponents.findParallel(graph, 4);
+        Assert.assertEquals(sequential.count(), parallel.count());
+        for (String a : graph.getAllNodes()) {
+            for (String b : graph.getNeighbors(a)) {
+                Assert.assertEquals(sequential.sameComponent(a, b), parallel.sameComponent(a, b));
+            }
+        }
+    }
+}
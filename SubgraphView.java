@@ -0,0 +1,328 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Read-only view of part of an IndexedGraph: the nodes in a membership bitset over the parent's node ids, and the
+ * parent's edges between them. Nothing is copied; getNeighbors and the traversals in GraphUtils read the parent's
+ * successor arrays and skip targets outside the view. Making a view costs one bit per parent node plus whatever
+ * search picked the members, so it is cheap to make one per component or neighborhood query. When a view will be
+ * queried many times, compact() turns it into a standalone IndexedGraph with dense ids.
+ */
+public class SubgraphView implements IGraph {
+    private final IndexedGraph parent;
+    private final long[] members; // bit v is set if parent node v is in the view
+    private final int size;
+
+    /**
+     * Constructor for SubgraphView. Only called by the static factory methods.
+     * @param parent  graph the view is part of
+     * @param members membership bitset over the parent's node ids
+     * @param size    number of set bits in members
+     */
+    private SubgraphView(IndexedGraph parent, long[] members, int size) {
+        this.parent = parent;
+        this.members = members;
+        this.size = size;
+    }
+
+    /**
+     * Method to make a view of a given set of nodes. Labels that are not in the parent are ignored.
+     * @param parent graph to view
+     * @param labels labels of the nodes to include
+     * @return SubgraphView of those nodes and the edges between them
+     */
+    public static SubgraphView of(IndexedGraph parent, Collection<String> labels) {
+        long[] members = new long[(parent.size() + 63) >>> 6];
+        int size = 0;
+        for (String label : labels) {
+            int v = parent.indexOf(label);
+            if (v >= 0 && (members[v >>> 6] & (1L << v)) == 0) {
+                members[v >>> 6] |= 1L << v;
+                size++;
+            }
+        }
+        return new SubgraphView(parent, members, size);
+    }
+
+    /**
+     * Method to make a view of every node within a number of hops along the edges from a start node
+     * @param parent graph to view
+     * @param label  label of the start node
+     * @param hops   largest number of edges between the start node and a node of the view, at least 0
+     * @return SubgraphView of the neighborhood, which is empty if the label is not in the parent
+     * @throws IllegalArgumentException if hops is negative
+     */
+    public static SubgraphView neighborhood(IndexedGraph parent, String label, int hops) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("hops must be at least 0, got " + hops);
+        }
+        return search(parent, null, label, hops);
+    }
+
+    /**
+     * Method to make a view of the connected component of a node, following edges in both directions. This needs
+     * the reverse of the parent; use the overload that takes it when making several component views.
+     * @param parent graph to view
+     * @param label  label of a node in the component
+     * @return SubgraphView of the component, which is empty if the label is not in the parent
+     */
+    public static SubgraphView component(IndexedGraph parent, String label) {
+        return component(parent, parent.reverse(), label);
+    }
+
+    /**
+     * Method to make a view of the connected component of a node, following edges in both directions
+     * @param parent  graph to view
+     * @param reverse parent.reverse(), made once by the caller
+     * @param label   label of a node in the component
+     * @return SubgraphView of the component, which is empty if the label is not in the parent
+     */
+    public static SubgraphView component(IndexedGraph parent, IndexedGraph reverse, String label) {
+        return search(parent, reverse, label, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Helper method for the factories: breadth-first-search from a node up to a number of hops, along the edges of
+     * the parent and, if reverse is not null, against them too. The visited marks become the membership bitset.
+     */
+    private static SubgraphView search(IndexedGraph parent, IndexedGraph reverse, String label, int hops) {
+        long[] members = new long[(parent.size() + 63) >>> 6];
+        int start = parent.indexOf(label);
+        if (start < 0) {
+            return new SubgraphView(parent, members, 0);
+        }
+        TraversalWorkspace workspace = TraversalWorkspace.get();
+        workspace.begin(parent.size());
+        int[] queue = workspace.queue;
+        int[] depth = workspace.side; // hops from the start node
+        int head = 0;
+        int tail = 0;
+        workspace.visit(start);
+        depth[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            members[current >>> 6] |= 1L << current;
+            if (depth[current] == hops) {
+                continue;
+            }
+            tail = visitSuccessors(parent, current, workspace, tail);
+            if (reverse != null) {
+                tail = visitSuccessors(reverse, current, workspace, tail);
+            }
+        }
+        return new SubgraphView(parent, members, tail);
+    }
+
+    /**
+     * Helper method for search that queues the unvisited successors of a node, one hop further than the node
+     * @return the new end of the queue
+     */
+    private static int visitSuccessors(IndexedGraph direction, int current, TraversalWorkspace workspace, int tail) {
+        int[] targets = direction.targets();
+        for (int e = direction.firstEdge(current); e < direction.endEdge(current); e++) {
+            if (workspace.visit(targets[e])) {
+                workspace.side[targets[e]] = workspace.side[current] + 1;
+                workspace.queue[tail++] = targets[e];
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Method to get the number of nodes in the view
+     * @return number of nodes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to check whether a node is in the view
+     * @param label label of the node
+     * @return true if the label is a node of the parent and is in the view
+     */
+    public boolean contains(String label) {
+        int v = this.parent.indexOf(label);
+        return v >= 0 && this.containsId(v);
+    }
+
+    /**
+     * Method to get the graph this is a view of
+     * @return the parent graph
+     */
+    public IndexedGraph getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Method to check whether a parent node id is in the view
+     * @param v node id in the parent
+     * @return true if the node is in the view
+     */
+    boolean containsId(int v) {
+        return (this.members[v >>> 6] & (1L << v)) != 0;
+    }
+
+    /**
+     * Method to copy the view into a standalone IndexedGraph. Nodes are renumbered densely in the order of their
+     * parent ids, and only edges with both ends in the view are kept. The copy shares the parent's label dictionary
+     * and finds the new id of each edge target through its own id table, so making it costs time and memory in
+     * proportion to the view, not the parent.
+     * @return IndexedGraph with the nodes and edges of the view
+     */
+    public IndexedGraph compact() {
+        int[] labelIds = new int[this.size];
+        int[] parentTargets = this.parent.targets();
+        int[] offsets = new int[this.size + 1];
+        int[] targets = new int[16];
+        int edges = 0;
+        int n = 0;
+        // copy the edges inside the view with their parent ids first, since the id table comes with the graph
+        for (int v = this.nextMember(0); v >= 0; v = this.nextMember(v + 1)) {
+            labelIds[n] = this.parent.labelId(v);
+            for (int e = this.parent.firstEdge(v); e < this.parent.endEdge(v); e++) {
+                if (this.containsId(parentTargets[e])) {
+                    if (edges == targets.length) {
+                        targets = Arrays.copyOf(targets, 2 * edges);
+                    }
+                    targets[edges++] = parentTargets[e];
+                }
+            }
+            offsets[++n] = edges;
+        }
+        IndexedGraph compacted = new IndexedGraph(this.parent.labels(), labelIds, offsets,
+                Arrays.copyOf(targets, edges));
+        int[] newTargets = compacted.targets();
+        for (int e = 0; e < edges; e++) {
+            newTargets[e] = compacted.indexOfLabelId(this.parent.labelId(newTargets[e]));
+        }
+        return compacted;
+    }
+
+    /**
+     * Helper method to find the first member id at or after a parent id
+     * @return the member id, or -1 if there is none
+     */
+    private int nextMember(int from) {
+        int word = from >>> 6;
+        if (word >= this.members.length) {
+            return -1;
+        }
+        long bits = this.members[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == this.members.length) {
+                return -1;
+            }
+            bits = this.members[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * SubgraphView is read-only; add to the parent graph instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addNode(String descr) {
+        throw new UnsupportedOperationException("SubgraphView is read-only");
+    }
+
+    /**
+     * SubgraphView is read-only; add to the parent graph instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("SubgraphView is read-only");
+    }
+
+    /**
+     * SubgraphView is read-only; add to the parent graph instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("SubgraphView is read-only");
+    }
+
+    /**
+     * Method to count how many nodes of the view have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        int[] targets = this.parent.targets();
+        int count = 0;
+        for (int v = this.nextMember(0); v >= 0; v = this.nextMember(v + 1)) {
+            for (int e = this.parent.firstEdge(v); e < this.parent.endEdge(v); e++) {
+                if (targets[e] == v) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node of the view (with or without an edge to
+     * itself).
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel is in the view and has an edge to every other node of the view
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int v = this.parent.indexOf(fromNodeLabel);
+        if (v < 0 || !this.containsId(v)) {
+            return false;
+        }
+        int[] targets = this.parent.targets();
+        int others = 0;
+        for (int e = this.parent.firstEdge(v); e < this.parent.endEdge(v); e++) {
+            if (targets[e] != v && this.containsId(targets[e])) {
+                others++;
+            }
+        }
+        return others == this.size - 1;
+    }
+
+    /**
+     * Method to get the neighbors of a node that are also in the view
+     * @param rootNode node to get neighbors of
+     * @return HashSet of Strings that represent node neighbors of the root, empty if the root is not in the view
+     */
+    @Override
+    public HashSet<String> getNeighbors(String rootNode) {
+        HashSet<String> neighbors = new HashSet<>();
+        int v = this.parent.indexOf(rootNode);
+        if (v >= 0 && this.containsId(v)) {
+            int[] targets = this.parent.targets();
+            for (int e = this.parent.firstEdge(v); e < this.parent.endEdge(v); e++) {
+                if (this.containsId(targets[e])) {
+                    neighbors.add(this.parent.label(targets[e]));
+                }
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Method to return all the nodes in the view
+     * @return LinkedList<String> that contains all the nodes, in parent id order
+     */
+    @Override
+    public LinkedList<String> getAllNodes() {
+        LinkedList<String> allNodes = new LinkedList<>();
+        for (int v = this.nextMember(0); v >= 0; v = this.nextMember(v + 1)) {
+            allNodes.add(this.parent.label(v));
+        }
+        return allNodes;
+    }
+}
@@ -0,0 +1,104 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.GraphGenerator;
+import sol.GraphUtils;
+import sol.IndexedGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import sol.SubgraphView;
+import sol.TraversalWorkspace;
+import src.NoRouteException;
+import src.NoScheduleException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class SubgraphViewTest {
+    // Builds two separate chains, a0 -> a1 -> a2 -> a3 and b0 -> b1, plus a self-edge on b1
+    private IndexedGraph makeTwoChains() {
+        NodeEdgeGraph graph = new NodeEdgeGraph("two chains");
+        graph.addDirectedEdge("a0", "a1");
+        graph.addDirectedEdge("a1", "a2");
+        graph.addDirectedEdge("a2", "a3");
+        graph.addDirectedEdge("b0", "b1");
+        graph.addDirectedEdge("b1", "b1");
+        return IndexedGraph.of(graph);
+    }
+
+    @Test
+    public void testFiltersEdges() {
+        IndexedGraph graph = makeTwoChains();
+        SubgraphView view = SubgraphView.of(graph, Arrays.asList("a0", "a1", "a3", "b1", "missing"));
+        Assert.assertEquals(4, view.size());
+        Assert.assertTrue(view.getNeighbors("a0").contains("a1"));
+        Assert.assertTrue(view.getNeighbors("a1").isEmpty()); // a2 is outside the view
+        Assert.assertTrue(view.getNeighbors("a2").isEmpty());
+        Assert.assertEquals(1, view.countSelfEdges());
+        Assert.assertFalse(view.contains("a2"));
+        Assert.assertEquals(4, view.getAllNodes().size());
+        Assert.assertThrows(UnsupportedOperationException.class, () -> view.addDirectedEdge("a0", "a3"));
+
+        Assert.assertFalse(GraphUtils.hasRoute(view, "a0", "a3", TraversalWorkspace.get()));
+        Assert.assertTrue(GraphUtils.hasRoute(graph, "a0", "a3", TraversalWorkspace.get()));
+        Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(view, "a0", "a3"));
+    }
+
+    @Test
+    public void testComponentAndNeighborhood() throws NoRouteException {
+        IndexedGraph graph = makeTwoChains();
+        SubgraphView component = SubgraphView.component(graph, "a2");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a0", "a1", "a2", "a3")),
+                new HashSet<>(component.getAllNodes()));
+        Assert.assertEquals(4, GraphUtils.getRoute(component, "a0", "a3").size());
+        Assert.assertEquals(2, SubgraphView.component(graph, "b0").size());
+        Assert.assertEquals(0, SubgraphView.component(graph, "missing").size());
+
+        SubgraphView neighborhood = SubgraphView.neighborhood(graph, "a1", 1);
+        Assert.assertEquals(2, neighborhood.size());
+        Assert.assertTrue(neighborhood.contains("a2"));
+        Assert.assertFalse(neighborhood.contains("a0")); // only edges out of a1 are followed
+        Assert.assertEquals(1, SubgraphView.neighborhood(graph, "a1", 0).size());
+        Assert.assertThrows(IllegalArgumentException.class, () -> SubgraphView.neighborhood(graph, "a1", -1));
+    }
+
+    @Test
+    public void testCompact() throws NoScheduleException, NoRouteException {
+        NodeEdgeGraph grid = new NodeEdgeGraph("grid");
+        new GraphGenerator(40).grid(10, 10, GraphGenerator.into(grid, true));
+        IndexedGraph graph = IndexedGraph.of(grid);
+        SubgraphView view = SubgraphView.neighborhood(graph, "node 55", 2);
+        Assert.assertEquals(13, view.size());
+
+        IndexedGraph compact = view.compact();
+        Assert.assertEquals(13, compact.size());
+        for (String node : view.getAllNodes()) {
+            Assert.assertEquals(view.getNeighbors(node), compact.getNeighbors(node));
+        }
+        Assert.assertEquals(view.getAllNodes(), compact.getAllNodes());
+        Assert.assertEquals(GraphUtils.getRoute(view, "node 45", "node 65").size(),
+                GraphUtils.getRoute(compact, "node 45", "node 65").size());
+        Assert.assertTrue(Scheduler.checkValidity(view, Scheduler.findSchedule(view)));
+
+        // the copy shares the parent's labels, and labels outside the view are not its nodes
+        Assert.assertSame(graph.labels(), compact.labels());
+        Assert.assertEquals(-1, compact.indexOf("node 0"));
+        Assert.assertEquals(-1, compact.indexOf("missing"));
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertEquals(v, compact.indexOf(compact.label(v)));
+        }
+        Assert.assertEquals(compact.edgeCount(), compact.reverse().edgeCount());
+        Assert.assertTrue(compact.reverse().getNeighbors("node 55").contains("node 45"));
+
+        // compacting a view of a compacted graph goes through both id tables
+        IndexedGraph inner = SubgraphView.neighborhood(compact, "node 55", 1).compact();
+        Assert.assertEquals(5, inner.size());
+        Assert.assertTrue(compact.indexOf("node 44") >= 0);
+        Assert.assertEquals(-1, inner.indexOf("node 44"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("node 54", "node 56", "node 45", "node 65")),
+                inner.getNeighbors("node 55"));
+        Assert.assertTrue(inner.getNeighbors("node 54").contains("node 55"));
+    }
+}
@@ -0,0 +1,199 @@
+package sol;
+
+import src.NoOrderException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Topological order of a DAG, such as a graph of lab prerequisites in which an edge from a to b means a has to come
+ * before b. The order is found with Kahn's algorithm one level at a time: level 0 holds the nodes with no incoming
+ * edges, and level k holds the nodes whose last prerequisite is on level k - 1, so a node's level is the length of
+ * the longest path that ends at it. Nodes on the same level never depend on each other, which lets runWavefront
+ * process each level in parallel.
+ */
+public class TopologicalOrder {
+    // a level is split into about this many tasks per core, so that uneven task times still keep every core busy
+    private static final int TASKS_PER_CORE = 4;
+
+    private final IndexedGraph graph;
+    private final int[] order;      // node ids, level by level
+    private final int[] levelStart; // level k is order[levelStart[k]] up to (not including) order[levelStart[k + 1]]
+    private final int[] levelOf;
+
+    /**
+     * Constructor for TopologicalOrder. Only called by of.
+     */
+    private TopologicalOrder(IndexedGraph graph, int[] order, int[] levelStart, int[] levelOf) {
+        this.graph = graph;
+        this.order = order;
+        this.levelStart = levelStart;
+        this.levelOf = levelOf;
+    }
+
+    /**
+     * Method to order the nodes of a graph so that every edge goes from an earlier node to a later one. It runs in
+     * O(N + E) time on a snapshot of the graph.
+     * @param theGraph graph to order
+     * @return the order, grouped into levels
+     * @throws NoOrderException if the graph has a cycle; the exception holds one such cycle
+     */
+    public static TopologicalOrder of(IGraph theGraph) throws NoOrderException {
+        IndexedGraph g = IndexedGraph.of(theGraph);
+        int n = g.size();
+        int[] targets = g.targets();
+        int[] inDegree = new int[n];
+        for (int target : targets) {
+            inDegree[target]++;
+        }
+
+        int[] order = new int[n];
+        int[] levelOf = new int[n];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                order[size++] = v;
+            }
+        }
+        int[] levelStart = new int[n + 2];
+        int numLevels = 0;
+        int head = 0;
+        while (head < size) {
+            // everything queued so far is the current level; nodes freed by it make up the next one
+            levelStart[numLevels] = head;
+            int levelEnd = size;
+            for (; head < levelEnd; head++) {
+                int v = order[head];
+                levelOf[v] = numLevels;
+                for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                    if (--inDegree[targets[e]] == 0) {
+                        order[size++] = targets[e];
+                    }
+                }
+            }
+            numLevels++;
+        }
+        levelStart[numLevels] = size;
+
+        if (size < n) {
+            throw new NoOrderException(findCycle(g, inDegree));
+        }
+        return new TopologicalOrder(g, order, Arrays.copyOf(levelStart, numLevels + 1), levelOf);
+    }
+
+    /**
+     * Helper method to find a cycle among the nodes Kahn's algorithm could not place (those with inDegree left
+     * above 0). Every such node has a predecessor that was not placed either, so walking backwards from one of them
+     * must eventually repeat a node, and the walk from that node back to itself is a cycle.
+     */
+    private static LinkedList<String> findCycle(IndexedGraph g, int[] inDegree) {
+        IndexedGraph reverse = g.reverse();
+        int[] sources = reverse.targets();
+        int[] position = new int[g.size()];
+        int[] walk = new int[g.size()];
+        int length = 0;
+        int v = 0;
+        while (inDegree[v] == 0) {
+            v++;
+        }
+        while (position[v] == 0) {
+            walk[length++] = v;
+            position[v] = length; // 1-based, so that 0 means not on the walk yet
+            int e = reverse.firstEdge(v);
+            while (inDegree[sources[e]] == 0) {
+                e++;
+            }
+            v = sources[e];
+        }
+        // the walk went against the edges, so read it backwards to list the cycle in edge order
+        LinkedList<String> cycle = new LinkedList<>();
+        for (int i = length - 1; i >= position[v] - 1; i--) {
+            cycle.add(g.label(walk[i]));
+        }
+        return cycle;
+    }
+
+    /**
+     * Method to get every node in topological order
+     * @return LinkedList of node labels, levels in increasing order
+     */
+    public LinkedList<String> getOrder() {
+        LinkedList<String> labels = new LinkedList<>();
+        for (int v : this.order) {
+            labels.add(this.graph.label(v));
+        }
+        return labels;
+    }
+
+    /**
+     * Method to get the number of levels, which is one more than the length of the longest path
+     * @return number of levels
+     */
+    public int levelCount() {
+        return this.levelStart.length - 1;
+    }
+
+    /**
+     * Method to get the nodes on one level
+     * @param level level number, from 0 to levelCount() - 1
+     * @return LinkedList of the labels of the nodes on that level
+     */
+    public LinkedList<String> getLevel(int level) {
+        LinkedList<String> labels = new LinkedList<>();
+        for (int i = this.levelStart[level]; i < this.levelStart[level + 1]; i++) {
+            labels.add(this.graph.label(this.order[i]));
+        }
+        return labels;
+    }
+
+    /**
+     * Method to get the level of a node
+     * @param label label of the node
+     * @return level of the node, or -1 if the label is not in the graph
+     */
+    public int levelOf(String label) {
+        int v = this.graph.indexOf(label);
+        return v < 0 ? -1 : this.levelOf[v];
+    }
+
+    /**
+     * Method to run an action on every node, one level at a time. The nodes of a level are split into tasks on the
+     * executor, and the next level only starts once every task of the current one has finished, so the action for a
+     * node always runs after the actions for all of its predecessors.
+     * @param executor executor to run the tasks on
+     * @param action   action to run on each node label; it must be safe to call from several threads at once
+     * @throws InterruptedException if interrupted while waiting for a level
+     * @throws ExecutionException if the action throws; the remaining levels are skipped
+     */
+    public void runWavefront(ExecutorService executor, Consumer<String> action)
+            throws InterruptedException, ExecutionException {
+        int maxTasks = TASKS_PER_CORE * Runtime.getRuntime().availableProcessors();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int level = 0; level < this.levelCount(); level++) {
+            int start = this.levelStart[level];
+            int end = this.levelStart[level + 1];
+            int chunk = (end - start + maxTasks - 1) / maxTasks;
+            tasks.clear();
+            for (int from = start; from < end; from += chunk) {
+                int to = Math.min(end, from + chunk);
+                int first = from;
+                tasks.add(() -> {
+                    for (int i = first; i < to; i++) {
+                        action.accept(this.graph.label(this.order[i]));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.GraphGenerator;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import sol.TopologicalOrder;
+import src.NoOrderException;
+import src.NodeNameExistsException;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TopologicalOrderTest {
+    // Builds a small prerequisite graph: intro before data and algo, both before final; elective on its own
+    private IGraph makeCourses() {
+        IGraph courses = new NodeEdgeGraph("courses");
+        courses.addDirectedEdge("intro", "data");
+        courses.addDirectedEdge("intro", "algo");
+        courses.addDirectedEdge("data", "final");
+        courses.addDirectedEdge("algo", "final");
+        courses.addDirectedEdge("intro", "final");
+        try {
+            courses.addNode("elective");
+        } catch (NodeNameExistsException e) {
+            Assert.fail("Could not create graph to test");
+        }
+        return courses;
+    }
+
+    @Test
+    public void testOrderAndLevels() throws NoOrderException {
+        IGraph courses = makeCourses();
+        TopologicalOrder order = TopologicalOrder.of(courses);
+        LinkedList<String> labels = order.getOrder();
+        Assert.assertEquals(5, labels.size());
+        for (String from : labels) {
+            for (String to : courses.getNeighbors(from)) {
+                Assert.assertTrue(labels.indexOf(from) < labels.indexOf(to));
+            }
+        }
+        Assert.assertEquals(3, order.levelCount());
+        Assert.assertEquals(2, order.getLevel(0).size());
+        Assert.assertEquals(0, order.levelOf("elective"));
+        Assert.assertEquals(1, order.levelOf("algo"));
+        Assert.assertEquals(2, order.levelOf("final"));
+        Assert.assertEquals(-1, order.levelOf("missing"));
+    }
+
+    @Test
+    public void testCycleReported() {
+        IGraph courses = makeCourses();
+        courses.addDirectedEdge("final", "data");
+        NoOrderException e = Assert.assertThrows(NoOrderException.class, () -> TopologicalOrder.of(courses));
+        LinkedList<String> cycle = e.getCycle();
+        Assert.assertEquals(2, cycle.size());
+        for (int i = 0; i < cycle.size(); i++) {
+            String next = cycle.get((i + 1) % cycle.size());
+            Assert.assertTrue(courses.getNeighbors(cycle.get(i)).contains(next));
+        }
+
+        IGraph loop = new NodeEdgeGraph("loop");
+        loop.addDirectedEdge("a", "b");
+        loop.addDirectedEdge("b", "b");
+        e = Assert.assertThrows(NoOrderException.class, () -> TopologicalOrder.of(loop));
+        Assert.assertEquals("[b]", e.getCycle().toString());
+    }
+
+    @Test
+    public void testWavefrontRespectsPrerequisites() throws Exception {
+        // a grid with every edge pointing right or down is a DAG with 2 * side - 1 levels
+        int side = 30;
+        IGraph grid = new NodeEdgeGraph("grid");
+        new GraphGenerator(38).grid(side, side, GraphGenerator.into(grid, false));
+        TopologicalOrder order = TopologicalOrder.of(grid);
+        Assert.assertEquals(2 * side - 1, order.levelCount());
+
+        ConcurrentHashMap<String, Integer> finished = new ConcurrentHashMap<>();
+        HashMap<String, LinkedList<String>> predecessors = new HashMap<>();
+        for (String node : grid.getAllNodes()) {
+            for (String next : grid.getNeighbors(node)) {
+                predecessors.computeIfAbsent(next, key -> new LinkedList<>()).add(node);
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            order.runWavefront(pool, node -> {
+                for (String before : predecessors.getOrDefault(node, new LinkedList<>())) {
+                    if (!finished.containsKey(before)) {
+                        throw new IllegalStateException(node + " ran before " + before);
+                    }
+                }
+                finished.put(node, order.levelOf(node));
+            });
+            Assert.assertEquals(side * side, finished.size());
+
+            Assert.assertThrows(ExecutionException.class, () -> order.runWavefront(pool, node -> {
+                throw new IllegalStateException("stop");
+            }));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
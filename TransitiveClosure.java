@@ -0,0 +1,140 @@
+package sol;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.stream.IntStream;
+
+/**
+ * Reachability between every pair of nodes of a graph, stored as a bit matrix with 64 cells per long. Row i has bit
+ * j set when there is a route of at least one edge from node i to node j. It is computed with a blocked version of
+ * Warshall's algorithm: intermediate nodes are taken 64 at a time (one word column), the 64 pivot rows are closed
+ * first, and then every other row is updated from them independently, so the rows can be split across cores.
+ */
+public class TransitiveClosure {
+    private final String[] labels;
+    private final HashMap<String, Integer> nodeIndexMap;
+    private final long[][] rows;
+
+    /**
+     * Constructor for TransitiveClosure. Computes the closure in place on the given adjacency rows.
+     * @param labels       label of each node index
+     * @param nodeIndexMap map from label to node index
+     * @param rows         adjacency bit matrix, which becomes the closure matrix
+     */
+    TransitiveClosure(String[] labels, HashMap<String, Integer> nodeIndexMap, long[][] rows) {
+        this.labels = labels;
+        this.nodeIndexMap = nodeIndexMap;
+        this.rows = rows;
+        this.close();
+    }
+
+    /**
+     * Helper method that runs blocked Warshall over the rows
+     */
+    private void close() {
+        int n = this.rows.length;
+        for (int blockStart = 0; blockStart < n; blockStart += 64) {
+            int blockEnd = Math.min(n, blockStart + 64);
+            int word = blockStart >>> 6;
+
+            // close the pivot rows among themselves, exactly as plain Warshall would for these 64 steps
+            for (int k = blockStart; k < blockEnd; k++) {
+                long[] pivot = this.rows[k];
+                for (int p = blockStart; p < blockEnd; p++) {
+                    if ((this.rows[p][word] & (1L << k)) != 0) {
+                        or(this.rows[p], pivot);
+                    }
+                }
+            }
+
+            // every other row only reads the (now final) pivot rows, so rows can be updated in parallel
+            final int start = blockStart;
+            final int end = blockEnd;
+            IntStream.range(0, n).parallel().forEach(i -> {
+                if (i >= start && i < end) {
+                    return;
+                }
+                long[] row = this.rows[i];
+                for (int k = start; k < end; k++) {
+                    if ((row[word] & (1L << k)) != 0) {
+                        or(row, this.rows[k]);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Helper method to or one row into another, one long (64 cells) at a time
+     */
+    private static void or(long[] into, long[] from) {
+        for (int w = 0; w < into.length; w++) {
+            into[w] |= from[w];
+        }
+    }
+
+    /**
+     * Method to check whether there is a route from one node to another. Like GraphUtils.hasRoute, every node
+     * counts as reaching itself.
+     * @param fromNodeLabel name of the node to start from
+     * @param toNodeLabel   name of the node to reach
+     * @return true if there is such a route, false if not or if either label is not in the graph
+     */
+    public boolean hasRoute(String fromNodeLabel, String toNodeLabel) {
+        Integer from = this.nodeIndexMap.get(fromNodeLabel);
+        Integer to = this.nodeIndexMap.get(toNodeLabel);
+        if (from == null || to == null) {
+            return false;
+        }
+        return from.equals(to) || (this.rows[from][to >>> 6] & (1L << to)) != 0;
+    }
+
+    /**
+     * Method to check whether a node lies on a cycle, meaning it has a route of at least one edge back to itself
+     * @param nodeLabel name of the node
+     * @return true if the node is on a cycle
+     */
+    public boolean isOnCycle(String nodeLabel) {
+        Integer index = this.nodeIndexMap.get(nodeLabel);
+        return index != null && (this.rows[index][index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Method to get every node that can be reached from a node by a route of at least one edge
+     * @param fromNodeLabel name of the node to start from
+     * @return LinkedList of reachable node labels, empty if the label is not in the graph
+     */
+    public LinkedList<String> getReachable(String fromNodeLabel) {
+        LinkedList<String> reachable = new LinkedList<>();
+        Integer from = this.nodeIndexMap.get(fromNodeLabel);
+        if (from == null) {
+            return reachable;
+        }
+        long[] row = this.rows[from];
+        for (int w = 0; w < row.length; w++) {
+            long bits = row[w];
+            while (bits != 0) {
+                reachable.add(this.labels[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Method to count the nodes that can be reached from a node by a route of at least one edge
+     * @param fromNodeLabel name of the node to start from
+     * @return number of reachable nodes, 0 if the label is not in the graph
+     */
+    public int countReachable(String fromNodeLabel) {
+        Integer from = this.nodeIndexMap.get(fromNodeLabel);
+        if (from == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long bits : this.rows[from]) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+}
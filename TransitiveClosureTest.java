@@ -0,0 +1,50 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.EdgeArrayGraph;
+import sol.GraphUtils;
+import sol.TransitiveClosure;
+import src.NoRouteException;
+
+import java.util.Random;
+
+public class TransitiveClosureTest {
+    @Test
+    public void testSimpleChain() {
+        EdgeArrayGraph graph = new EdgeArrayGraph("chain");
+        graph.addDirectedEdge("node 1", "node 2");
+        graph.addDirectedEdge("node 2", "node 3");
+        graph.addDirectedEdge("node 4", "node 4");
+        TransitiveClosure closure = graph.transitiveClosure();
+        Assert.assertTrue(closure.hasRoute("node 1", "node 3"));
+        Assert.assertFalse(closure.hasRoute("node 3", "node 1"));
+        Assert.assertTrue(closure.hasRoute("node 2", "node 2"));
+        Assert.assertFalse(closure.isOnCycle("node 2"));
+        Assert.assertTrue(closure.isOnCycle("node 4"));
+        Assert.assertEquals(2, closure.countReachable("node 1"));
+    }
+
+    @Test
+    public void testMatchesGetRoute() {
+        // more than 64 nodes so that several blocks are used
+        EdgeArrayGraph graph = new EdgeArrayGraph("random");
+        Random random = new Random(29);
+        for (int i = 0; i < 200; i++) {
+            graph.addDirectedEdge("node " + random.nextInt(150), "node " + random.nextInt(150));
+        }
+        TransitiveClosure closure = graph.transitiveClosure();
+        for (String from : graph.getAllNodes()) {
+            for (String to : graph.getAllNodes()) {
+                boolean routeFound = true;
+                try {
+                    GraphUtils.getRoute(graph, from, to);
+                } catch (NoRouteException e) {
+                    routeFound = false;
+                }
+                Assert.assertEquals(from + " -> " + to, routeFound, closure.hasRoute(from, to));
+            }
+        }
+    }
+}
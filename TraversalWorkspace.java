@@ -0,0 +1,81 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for graph traversals over dense node ids: an int queue, a parent array, a side array (used
+ * for two-coloring) and an epoch-stamped visited array. Starting a new traversal only bumps the epoch, so "clearing"
+ * the visited marks is O(1) and a traversal that fits in the current capacity allocates nothing.
+ * A workspace must only be used by one traversal at a time. Use get() for one per thread, or create one and pass it
+ * explicitly to the methods that accept it.
+ */
+public class TraversalWorkspace {
+    private static final ThreadLocal<TraversalWorkspace> PER_THREAD = ThreadLocal.withInitial(TraversalWorkspace::new);
+
+    private int[] stamp;
+    private int epoch;
+    int[] queue;
+    int[] parent;
+    int[] side;
+
+    /**
+     * Constructor for TraversalWorkspace. Arrays start small and grow to the largest graph the workspace sees.
+     */
+    public TraversalWorkspace() {
+        this.stamp = new int[16];
+        this.queue = new int[16];
+        this.parent = new int[16];
+        this.side = new int[16];
+    }
+
+    /**
+     * Method to get the workspace that belongs to the calling thread
+     * @return this thread's TraversalWorkspace
+     */
+    public static TraversalWorkspace get() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Method to start a new traversal over a graph with the given number of nodes. Grows the arrays if needed and
+     * forgets every visited mark from the previous traversal.
+     * @param numNodes number of node ids the traversal may touch (ids 0 to numNodes - 1)
+     */
+    void begin(int numNodes) {
+        if (this.stamp.length < numNodes) {
+            int capacity = Math.max(numNodes, this.stamp.length * 2);
+            // a new stamp array is all zeroes, which is never a live epoch
+            this.stamp = new int[capacity];
+            this.queue = new int[capacity];
+            this.parent = new int[capacity];
+            this.side = new int[capacity];
+        }
+        this.epoch++;
+        if (this.epoch == Integer.MAX_VALUE) { // wrapped around: old stamps could look live again
+            Arrays.fill(this.stamp, 0);
+            this.epoch = 1;
+        }
+    }
+
+    /**
+     * Method to mark a node as visited in the current traversal
+     * @param id node id
+     * @return true if the node had not been visited yet in this traversal
+     */
+    boolean visit(int id) {
+        if (this.stamp[id] == this.epoch) {
+            return false;
+        }
+        this.stamp[id] = this.epoch;
+        return true;
+    }
+
+    /**
+     * Method to check whether a node has been visited in the current traversal
+     * @param id node id
+     * @return true if visit has been called for the node since the last begin
+     */
+    boolean isVisited(int id) {
+        return this.stamp[id] == this.epoch;
+    }
+}